@@ -0,0 +1,35 @@
+// k6 run -e BASE_URL=http://localhost:8080 -e READER=Gabriel -e PASSWORD=secret loadtest/checkout-spike.js
+//
+// Morning checkout spike: half of the virtual users browse /reader as a
+// logged-in reader, the other half pull the whole catalogue from /api/books/all.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '400');
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    scenarios: {
+        reader: {
+            executor: 'constant-vus', exec: 'reader', vus: VUS / 2, duration: DURATION,
+        },
+        catalogue: {
+            executor: 'constant-vus', exec: 'catalogue', vus: VUS / 2, duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function reader() {
+    if (__ITER === 0) {
+        http.post(`${BASE_URL}/login`, { username: __ENV.READER, password: __ENV.PASSWORD });
+    }
+    const res = http.get(`${BASE_URL}/reader`, { tags: { endpoint: 'reader' }, redirects: 0 });
+    check(res, { 'reader 200': (r) => r.status === 200 });
+}
+
+export function catalogue() {
+    const res = http.get(`${BASE_URL}/api/books/all`, { tags: { endpoint: 'books_all' } });
+    check(res, { 'books 200': (r) => r.status === 200 || r.status === 204 });
+}
@@ -0,0 +1,30 @@
+#!/usr/bin/env bash
+# Runs checkout-spike.js against the same jdk21 build in platform-thread and
+# virtual-thread mode and keeps both k6 summaries side by side in loadtest/results.
+# Needs k6, Java 21, a running Postgres and a reader account:
+#   READER=Gabriel PASSWORD=secret loadtest/compare-modes.sh
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results
+mvn -B -q -P jdk21 -DskipTests package
+JAR=$(ls target/library-*.jar | grep -v original | head -n 1)
+
+run_mode() {
+    local mode=$1 profiles=$2
+    java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.profiles.active="$profiles" \
+        > "loadtest/results/$mode-app.log" 2>&1 &
+    local pid=$!
+    until curl -sf http://localhost:8081/actuator/health > /dev/null; do sleep 1; done
+    k6 run --summary-export "loadtest/results/$mode.json" loadtest/checkout-spike.js \
+        | tee "loadtest/results/$mode.txt"
+    kill "$pid" && wait "$pid" || true
+}
+
+run_mode platform default
+run_mode virtual virtual
+
+for mode in platform virtual; do
+    echo "== $mode"
+    grep -E 'http_reqs|http_req_duration|http_req_failed' "loadtest/results/$mode.txt"
+done
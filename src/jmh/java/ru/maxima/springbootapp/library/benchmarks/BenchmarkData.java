@@ -0,0 +1,42 @@
+package ru.maxima.springbootapp.library.benchmarks;
+
+import ru.maxima.springbootapp.library.models.Book;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic catalogue shared by the benchmarks: every title has ten copies,
+ * every third copy is on loan and every twentieth one is removed.
+ */
+final class BenchmarkData {
+
+    static final int COPIES_PER_TITLE = 10;
+
+    private BenchmarkData() {
+    }
+
+    static Book book(long id) {
+        long title = id / COPIES_PER_TITLE;
+        Book book = new Book();
+        book.setId(id);
+        book.setName("Title " + title);
+        book.setAuthor("Author " + (title % 1000));
+        book.setYearOfProduction(1900 + (int) (title % 120));
+        book.setAnnotation("Annotation of the title number " + title + ", copy " + id);
+        book.setCreatedAt(LocalDateTime.now());
+        book.setCreatedPerson("benchmark");
+        book.setRemoved(id % 20 == 0);
+        book.setPersonId(id % 3 == 0 ? id % 100 + 1 : null);
+        return book;
+    }
+
+    static List<Book> books(int size) {
+        List<Book> books = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            books.add(book(id));
+        }
+        return books;
+    }
+}
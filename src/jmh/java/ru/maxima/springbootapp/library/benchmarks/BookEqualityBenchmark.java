@@ -0,0 +1,51 @@
+package ru.maxima.springbootapp.library.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.maxima.springbootapp.library.models.Book;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookEqualityBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private List<Book> books;
+    private Book first;
+    private Book sameTitle;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(catalogueSize);
+        first = BenchmarkData.book(1);
+        sameTitle = BenchmarkData.book(2);
+    }
+
+    @Benchmark
+    public int hashCodeOne() {
+
+        return first.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSameTitle() {
+
+        return first.equals(sameTitle);
+    }
+
+    /** The in-memory dedupe findUnique/findUniqueFree used before the GROUP BY query. */
+    @Benchmark
+    public void hashSetDedupe(Blackhole blackhole) {
+
+        blackhole.consume(new HashSet<>(books));
+    }
+}
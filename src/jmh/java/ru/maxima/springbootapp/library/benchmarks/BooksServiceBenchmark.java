@@ -0,0 +1,124 @@
+package ru.maxima.springbootapp.library.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.maxima.springbootapp.library.audit.AuditTrail;
+import ru.maxima.springbootapp.library.configuration.PrincipalConfig;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.repositories.AuditLogRepository;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.LoanRepository;
+import ru.maxima.springbootapp.library.services.BooksService;
+import ru.maxima.springbootapp.library.services.LibraryStats;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BooksService.findUnique/findUniqueFree on an in-memory H2 catalogue, next to
+ * the full-load-and-HashSet path they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class BooksServiceBenchmark {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private ConfigurableApplicationContext context;
+    private BooksService booksService;
+    private BooksRepository booksRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Catalogue.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:library;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.show_sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "--spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        booksService = context.getBean(BooksService.class);
+        booksRepository = context.getBean(BooksRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long id = 1; id <= catalogueSize; id++) {
+            Book book = BenchmarkData.book(id);
+            batch.add(new Object[]{book.getId(), book.getName(), book.getAuthor(), book.getYearOfProduction(),
+                    book.getAnnotation(), Timestamp.valueOf(book.getCreatedAt()), book.getCreatedPerson(),
+                    book.getRemoved(), book.getPersonId(), 0L});
+            if (batch.size() == SEED_BATCH_SIZE || id == catalogueSize) {
+                jdbcTemplate.batchUpdate("insert into book (id, name, author, year_of_production, annotation, " +
+                        "created_at, created_person, removed, person_id, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    public void findUnique(Blackhole blackhole) {
+
+        blackhole.consume(booksService.findUnique(0));
+    }
+
+    @Benchmark
+    public void findUniqueFree(Blackhole blackhole) {
+
+        blackhole.consume(booksService.findUniqueFree(0));
+    }
+
+    @Benchmark
+    public void legacyFindUnique(Blackhole blackhole) {
+
+        blackhole.consume(new HashSet<>(booksRepository.findAll()));
+    }
+
+    @Benchmark
+    public void legacyFindUniqueFree(Blackhole blackhole) {
+
+        blackhole.consume(new HashSet<>(booksRepository.findAllByRemovedAndPersonId(false, null)));
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = R2dbcAutoConfiguration.class)
+    @EntityScan(basePackageClasses = Book.class)
+    @EnableJpaRepositories(basePackageClasses = BooksRepository.class)
+    @Import({BooksService.class, PrincipalConfig.class, LoanRepository.class, LibraryStats.class,
+            AuditTrail.class, AuditLogRepository.class})
+    public static class Catalogue {
+    }
+}
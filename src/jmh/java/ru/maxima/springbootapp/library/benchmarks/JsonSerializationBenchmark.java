@@ -0,0 +1,53 @@
+package ru.maxima.springbootapp.library.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.openjdk.jmh.annotations.*;
+import ru.maxima.springbootapp.library.dto.BookDTO;
+import ru.maxima.springbootapp.library.dto.DtoConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the /api/books/all payload: one byte[] for the whole list
+ * against the streamed JSON array written element by element.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int catalogueSize;
+
+    private ObjectMapper objectMapper;
+    private List<BookDTO> books;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        books = BenchmarkData.books(catalogueSize).stream()
+                .map(DtoConverter::toBookDTO).toList();
+    }
+
+    @Benchmark
+    public byte[] wholeList() throws IOException {
+
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public void streamedArray() throws IOException {
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(OutputStream.nullOutputStream())) {
+            for (BookDTO book : books) {
+                writer.write(book);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.maxima.springbootapp.library.audit;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.maxima.springbootapp.library.events.ChangeType;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Turns committed inserts and updates of Book and Person into one audit
+ * record per changed field. Hibernate calls it after commit on the writing
+ * thread, so it only diffs the states it is given and queues the result.
+ * The audit columns themselves (created/updated/removed at and by, version)
+ * and collections are not diffed, the former are the who and when of the
+ * record; passwords are recorded as changed but never with their value.
+ */
+@Component
+public class AuditListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener {
+
+    private static final Set<String> AUDIT_FIELDS = Set.of("createdAt", "updatedAt", "removedAt",
+            "createdPerson", "updatedPerson", "removedPerson", "version");
+    private static final Set<String> SECRET_FIELDS = Set.of("password");
+    private static final String MASK = "******";
+
+    private final AuditTrail auditTrail;
+
+    @Autowired
+    public AuditListener(AuditTrail auditTrail, EntityManagerFactory entityManagerFactory) {
+        this.auditTrail = auditTrail;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> entity = persister.getMappedClass();
+        return entity == Book.class || entity == Person.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (!requiresPostCommitHandling(event.getPersister())) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] state = event.getState();
+        List<AuditRecord> records = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (state[i] != null && audited(event.getPersister(), names, i)) {
+                records.add(record(event.getPersister(), event.getId(), ChangeType.CREATE, names[i],
+                        null, state[i], (String) value(names, state, "createdPerson"),
+                        (LocalDateTime) value(names, state, "createdAt")));
+            }
+        }
+        auditTrail.record(records);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!requiresPostCommitHandling(event.getPersister()) || event.getDirtyProperties() == null) {
+            return;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        Object[] state = event.getState();
+        Object[] oldState = event.getOldState();
+        List<Integer> changed = new ArrayList<>();
+        for (int i : event.getDirtyProperties()) {
+            Object oldValue = oldState != null ? oldState[i] : null;
+            if (audited(event.getPersister(), names, i) && (oldState == null || !Objects.equals(oldValue, state[i]))) {
+                changed.add(i);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        ChangeType action = action(names, state, oldState, changed);
+        boolean removal = action == ChangeType.DELETE;
+        String changedBy = (String) value(names, state, removal ? "removedPerson" : "updatedPerson");
+        LocalDateTime changedAt = (LocalDateTime) value(names, state, removal ? "removedAt" : "updatedAt");
+        List<AuditRecord> records = new ArrayList<>(changed.size());
+        for (int i : changed) {
+            records.add(record(event.getPersister(), event.getId(), action, names[i],
+                    oldState != null ? oldState[i] : null, state[i], changedBy, changedAt));
+        }
+        auditTrail.record(records);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    private ChangeType action(String[] names, Object[] state, Object[] oldState, List<Integer> changed) {
+        if (changed.size() == 1 && "personId".equals(names[changed.get(0)])) {
+            return state[changed.get(0)] != null ? ChangeType.ASSIGN : ChangeType.UNLINK;
+        }
+        Object removed = value(names, state, "removed");
+        Object wasRemoved = oldState != null ? value(names, oldState, "removed") : null;
+        if (!Objects.equals(removed, wasRemoved) && wasRemoved != null) {
+            return Boolean.TRUE.equals(removed) ? ChangeType.DELETE : ChangeType.REVIVE;
+        }
+        return ChangeType.UPDATE;
+    }
+
+    private AuditRecord record(EntityPersister persister, Object id, ChangeType action, String field,
+                               Object oldValue, Object newValue, String changedBy, LocalDateTime changedAt) {
+        boolean secret = SECRET_FIELDS.contains(field);
+        return new AuditRecord(persister.getMappedClass().getSimpleName(), (Long) id, action, field,
+                secret && oldValue != null ? MASK : Objects.toString(oldValue, null),
+                secret && newValue != null ? MASK : Objects.toString(newValue, null),
+                changedBy, changedAt != null ? changedAt : LocalDateTime.now());
+    }
+
+    private static boolean audited(EntityPersister persister, String[] names, int i) {
+
+        return !AUDIT_FIELDS.contains(names[i]) && !persister.getPropertyTypes()[i].isCollectionType();
+    }
+
+    private static Object value(String[] names, Object[] state, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return state[i];
+            }
+        }
+        return null;
+    }
+}
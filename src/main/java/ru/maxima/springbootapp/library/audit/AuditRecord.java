@@ -0,0 +1,12 @@
+package ru.maxima.springbootapp.library.audit;
+
+import ru.maxima.springbootapp.library.events.ChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One changed field of one entity.
+ */
+public record AuditRecord(String entityType, Long entityId, ChangeType action, String field,
+                          String oldValue, String newValue, String changedBy, LocalDateTime changedAt) {
+}
@@ -0,0 +1,201 @@
+package ru.maxima.springbootapp.library.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.maxima.springbootapp.library.repositories.AuditLogRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands committed audit records to a background writer through a bounded
+ * queue. The writer inserts them into audit_log in batches of up to
+ * library.audit.batch-size, at least every library.audit.flush-interval. A
+ * full queue pushes back: the committing thread waits up to
+ * library.audit.offer-timeout in all for room for its records, and whatever
+ * hasn't fit by then is dropped, logged and counted in library.audit.dropped.
+ * Failed batches are retried, so while the database is away the queue fills
+ * up and writers slow down instead of the heap growing.
+ */
+@Component
+public class AuditTrail implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+
+    private final AuditLogRepository auditLogRepository;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Duration offerTimeout;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public AuditTrail(AuditLogRepository auditLogRepository,
+                      @Value("${library.audit.queue-capacity}") int queueCapacity,
+                      @Value("${library.audit.batch-size}") int batchSize,
+                      @Value("${library.audit.flush-interval}") Duration flushInterval,
+                      @Value("${library.audit.offer-timeout}") Duration offerTimeout,
+                      MeterRegistry meterRegistry) {
+        this.auditLogRepository = auditLogRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.offerTimeout = offerTimeout;
+        this.dropped = Counter.builder("library.audit.dropped")
+                .description("Audit records dropped because the queue stayed full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the records under one deadline for the whole list, so a large
+     * bulk change can't hold the caller for offer-timeout once per record.
+     */
+    public void record(List<AuditRecord> records) {
+        long deadline = System.nanoTime() + offerTimeout.toNanos();
+        int queued = 0;
+        try {
+            while (queued < records.size()
+                    && queue.offer(records.get(queued), deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queued < records.size()) {
+            int lost = records.size() - queued;
+            dropped.increment(lost);
+            log.error("Audit queue is full, dropped {} of {} records starting with {}",
+                    lost, records.size(), records.get(queued));
+        }
+    }
+
+    /**
+     * Queues the records once the current transaction commits, for changes
+     * made with plain SQL that Hibernate doesn't see.
+     */
+    public void recordAfterCommit(List<AuditRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(records);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(records);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            writer.join(flushInterval.multipliedBy(2).toMillis() + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Stopped with {} audit records not written", queue.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so requests still being
+     * served on shutdown have a writer to hand their records to.
+     */
+    @Override
+    public int getPhase() {
+
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void writeLoop() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    fill(batch);
+                }
+                if (!batch.isEmpty()) {
+                    auditLogRepository.saveAll(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Writing {} audit records failed on shutdown, dropped", batch.size(), e);
+                    return;
+                }
+                log.warn("Writing {} audit records failed, retrying", batch.size(), e);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Waits for the first record, then collects more until the batch is full
+     * or the flush interval since the first one has passed.
+     */
+    private void fill(List<AuditRecord> batch) throws InterruptedException {
+        AuditRecord first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long wait = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || wait <= 0) {
+                return;
+            }
+            AuditRecord next = queue.poll(wait, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(flushInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.maxima.springbootapp.library.configuration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.maxima.springbootapp.library.util.LiveRows;
+
+/**
+ * Applies the liveRows filter to every JPA transaction, except for requests
+ * to the admin views, which list removed rows so they can be revived. The
+ * book and person repositories are read-only transactional themselves, so
+ * their queries are filtered even when a controller calls them directly.
+ */
+@Configuration
+public class LiveRowsConfig implements WebMvcConfigurer {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            protected EntityManager createEntityManagerForTransaction() {
+                EntityManager entityManager = super.createEntityManagerForTransaction();
+                if (!LiveRows.isRemovedIncluded()) {
+                    LiveRows.enable(entityManager);
+                }
+                return entityManager;
+            }
+        };
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        LiveRows.includeRemoved();
+                        return true;
+                    }
+
+                    @Override
+                    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                                Object handler, Exception ex) {
+                        LiveRows.reset();
+                    }
+                })
+                .addPathPatterns("/admin", "/books/**", "/people/**");
+    }
+}
@@ -0,0 +1,51 @@
+package ru.maxima.springbootapp.library.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.maxima.springbootapp.library.metrics.EntityLoadCounter;
+import ru.maxima.springbootapp.library.metrics.SqlStatementCounter;
+import ru.maxima.springbootapp.library.metrics.SqlStatementsInterceptor;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final EntityLoadCounter entityLoadCounter;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public MetricsConfig(SqlStatementCounter sqlStatementCounter, EntityLoadCounter entityLoadCounter,
+                         MeterRegistry meterRegistry) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.entityLoadCounter = entityLoadCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCounterCustomizer() {
+        return properties -> properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(entityLoadCounter));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatementsInterceptor(sqlStatementCounter, entityLoadCounter, meterRegistry))
+                .addPathPatterns("/api/**", "/books/**", "/people/**", "/reader/**");
+    }
+}
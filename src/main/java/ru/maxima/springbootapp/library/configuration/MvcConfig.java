@@ -11,6 +11,5 @@ public class MvcConfig implements WebMvcConfigurer {
         registry.addViewController("/").setViewName("home");
         registry.addViewController("/login").setViewName("/auth/login");
         registry.addViewController("/reader").setViewName("/reader/index");
-        registry.addViewController("/admin").setViewName("admin");
     }
 }
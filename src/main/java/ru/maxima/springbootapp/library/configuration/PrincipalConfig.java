@@ -0,0 +1,21 @@
+package ru.maxima.springbootapp.library.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.annotation.RequestScope;
+import ru.maxima.springbootapp.library.security.CurrentPrincipal;
+
+@Configuration
+public class PrincipalConfig {
+
+    /**
+     * One CurrentPrincipal per request, built on first use; the singletons it
+     * is injected into get a proxy that resolves the one of the calling request.
+     */
+    @Bean
+    @RequestScope
+    public CurrentPrincipal currentPrincipal() {
+
+        return CurrentPrincipal.fromSecurityContext();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.maxima.springbootapp.library.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import ru.maxima.springbootapp.library.controllers.BooksReactiveHandler;
+
+/**
+ * Runs the /api/v2/books routes on a Netty server of their own. The
+ * application itself stays a servlet app, Spring Boot only starts one web
+ * server, so this one is started and stopped with the context.
+ */
+@Component
+public class ReactiveCatalogueServer implements SmartLifecycle {
+
+    private final HttpHandler httpHandler;
+    private final int port;
+    private volatile DisposableServer server;
+
+    @Autowired
+    public ReactiveCatalogueServer(BooksReactiveHandler booksReactiveHandler, ObjectMapper objectMapper,
+                                   @Value("${library.reactive.port}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        this.httpHandler = RouterFunctions.toHttpHandler(booksReactiveHandler.routes(), strategies);
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+
+        return server != null;
+    }
+}
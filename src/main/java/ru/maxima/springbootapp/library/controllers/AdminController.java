@@ -0,0 +1,27 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import ru.maxima.springbootapp.library.services.LibraryStats;
+
+@Controller
+@RequestMapping("/admin")
+public class AdminController {
+
+    private final LibraryStats libraryStats;
+
+    @Autowired
+    public AdminController(LibraryStats libraryStats) {
+
+        this.libraryStats = libraryStats;
+    }
+
+    @GetMapping()
+    public String index(Model model) {
+        model.addAttribute("stats", libraryStats.current());
+        return "admin";
+    }
+}
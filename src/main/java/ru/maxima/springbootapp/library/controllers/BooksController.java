@@ -2,19 +2,31 @@ package ru.maxima.springbootapp.library.controllers;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.projections.BookWithOwner;
 import ru.maxima.springbootapp.library.services.BooksService;
 import ru.maxima.springbootapp.library.services.PeopleService;
+import ru.maxima.springbootapp.library.util.SortWhitelist;
+
+import java.util.Set;
 
 @Controller
 @RequestMapping("/books")
 public class BooksController {
 
+    private static final int SEARCH_PAGE_SIZE = 50;
+    private static final int OWNER_CHOICES = 20;
+    private static final Set<String> SORTABLE = Set.of("id", "name", "author", "yearOfProduction");
+
     private final BooksService booksService;
     private final PeopleService peopleService;
     @Autowired
@@ -24,24 +36,39 @@ public class BooksController {
     }
 
     @GetMapping()
-    public String index(Model model) {
-        model.addAttribute("books", booksService.findAll());
+    public String index(@RequestParam(value = "q", required = false) String query,
+                        @PageableDefault(size = 50, sort = "id") Pageable pageable,
+                        Model model) {
+        if (query != null && !query.isBlank()) {
+            model.addAttribute("books", booksService.search(query, false, 0, SEARCH_PAGE_SIZE).getContent());
+        } else {
+            Pageable sorted = SortWhitelist.restrict(pageable, SORTABLE);
+            Slice<Book> page = booksService.findAll(sorted);
+            model.addAttribute("page", page);
+            model.addAttribute("books", page.getContent());
+            model.addAttribute("sort", SortWhitelist.toParam(sorted));
+        }
+        model.addAttribute("query", query);
         return "books/index";
     }
 
     @GetMapping("/{id}")
     public String show(@PathVariable("id") Long id, @ModelAttribute Person person,
+                       @RequestParam(value = "owner", required = false) String ownerPrefix,
                        Model model) {
-        model.addAttribute("book", booksService.findOne(id));
-        model.addAttribute("owner", booksService.findOwner(id));
-        model.addAttribute("people", peopleService.findAll());
+        BookWithOwner bookWithOwner = booksService.findOneWithOwner(id);
+        model.addAttribute("book", bookWithOwner.getBook());
+        model.addAttribute("owner", bookWithOwner.getOwner());
+        model.addAttribute("people", peopleService.findByNamePrefix(ownerPrefix, OWNER_CHOICES));
+        model.addAttribute("ownerPrefix", ownerPrefix);
         return "books/show";
     }
 
     @GetMapping("/new")
     public String newBookPageOpen(@ModelAttribute("book") Book book,
-                              Model model) {
-        model.addAttribute("booksUnique", booksService.findUnique());
+                                  @RequestParam(value = "page", defaultValue = "0") int page,
+                                  Model model) {
+        model.addAttribute("booksUnique", booksService.findUnique(Math.max(page, 0)));
         return "books/new";
     }
 
@@ -101,4 +128,10 @@ public class BooksController {
         return "redirect:/books/{id}";
     }
 
+    @ExceptionHandler
+    public String handelException(ObjectOptimisticLockingFailureException e) {
+
+        return "redirect:/books/" + e.getIdentifier() + "?busy";
+    }
+
 }
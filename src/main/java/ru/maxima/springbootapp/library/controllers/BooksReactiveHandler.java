@@ -0,0 +1,142 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import ru.maxima.springbootapp.library.dto.BookDTO;
+import ru.maxima.springbootapp.library.repositories.BooksReactiveRepository;
+import ru.maxima.springbootapp.library.util.BookErrorResponse;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Read-only catalogue for kiosks, the reactive twin of the GET endpoints in
+ * BooksRestController with the same JSON shapes and status codes. Served on
+ * library.reactive.port, writes stay on /api/books.
+ */
+@Component
+public class BooksReactiveHandler {
+
+    private final BooksReactiveRepository booksRepository;
+
+    @Autowired
+    public BooksReactiveHandler(BooksReactiveRepository booksRepository) {
+
+        this.booksRepository = booksRepository;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .path("/api/v2/books", builder -> builder
+                        .GET("/all", this::getAllBooksCutInfo)
+                        .GET("/{id}/owner", this::getOwnerOfBook)
+                        .GET("/{id}", this::getBook))
+                .build();
+    }
+
+
+    /*****
+     * GET localhost:8082/api/v2/books/all
+     * Streams the whole catalogue as a JSON array, or one book per line with
+     * Accept: application/x-ndjson; rows are read as fast as the client takes them
+     * Response OK = 200
+     *  {
+     *    "id": 13,
+     *    "name": "The Silence of the Lambs",
+     *    "yearOfProduction": 1988,
+     *    "author": "Thomas Harris",
+     *    "annotation": "Some text.",
+     *    "personId": null
+     *  }
+     * Response NO_CONTENT = 204
+     *  {
+     *    "message": "There are no books in this library",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    public Mono<ServerResponse> getAllBooksCutInfo(ServerRequest request) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return booksRepository.isEmpty().flatMap(empty -> empty
+                ? error(HttpStatus.NO_CONTENT, "There are no books in this library")
+                : ServerResponse.ok().contentType(mediaType).body(booksRepository.findAll(), BookDTO.class));
+    }
+
+
+    /*****
+     * GET localhost:8082/api/v2/books/id
+     * Response OK = 200
+     *  {
+     *    "id": 13,
+     *    "name": "The Silence of the Lambs",
+     *    "yearOfProduction": 1988,
+     *    "author": "Thomas Harris",
+     *    "annotation": "Some text.",
+     *    "personId": null
+     *  }
+     * Response BAD_REQUEST = 404
+     *  {
+     *    "message": "Book not found",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    public Mono<ServerResponse> getBook(ServerRequest request) {
+        return booksRepository.findById(bookId(request))
+                .flatMap(book -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(book))
+                .switchIfEmpty(Mono.defer(() -> error(HttpStatus.NOT_FOUND, "Book not found")));
+    }
+
+
+    /*****
+     * GET localhost:8082/api/v2/books/id/owner
+     * Response OK = 200
+     *   {
+     *     "id": 20,
+     *     "name": "Gabriel",
+     *     "age": 95,
+     *     "email": "gab@mail.com",
+     *     "phoneNumber": "+000000-000-000"
+     *   }
+     * Response BAD_REQUEST = 404
+     *   {
+     *     "message": "Book not found",
+     *     "timestamp": "2023-04-06T09:23:34.287+00:00",
+     *     "timezone": "Europe/Moscow"
+     *   }
+     * Response NO_CONTENT = 204
+     *   {
+     *     "message": "Free book",
+     *     "timestamp": "2023-04-06T09:23:34.287+00:00",
+     *     "timezone": "Europe/Moscow"
+     *   }
+     * */
+    public Mono<ServerResponse> getOwnerOfBook(ServerRequest request) {
+        return booksRepository.findOwner(bookId(request))
+                .flatMap(owner -> owner
+                        .map(person -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(person))
+                        .orElseGet(() -> error(HttpStatus.NO_CONTENT, "Free book")))
+                .switchIfEmpty(Mono.defer(() -> error(HttpStatus.NOT_FOUND, "Book not found")));
+    }
+
+    private Long bookId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private Mono<ServerResponse> error(HttpStatus status, String message) {
+        BookErrorResponse response = new BookErrorResponse(message, new Date(), TimeZone.getDefault());
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+    }
+}
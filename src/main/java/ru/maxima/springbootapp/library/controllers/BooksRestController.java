@@ -1,46 +1,92 @@
 package ru.maxima.springbootapp.library.controllers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.maxima.springbootapp.library.dto.BookDTO;
+import ru.maxima.springbootapp.library.dto.BookDeltaDTO;
+import ru.maxima.springbootapp.library.dto.BookLoanRequestDTO;
+import ru.maxima.springbootapp.library.dto.BookLoanResultDTO;
+import ru.maxima.springbootapp.library.dto.BookPageDTO;
+import ru.maxima.springbootapp.library.dto.BulkImportReportDTO;
+import ru.maxima.springbootapp.library.dto.DeltaPageDTO;
+import ru.maxima.springbootapp.library.dto.DtoConverter;
 import ru.maxima.springbootapp.library.dto.PersonDTO;
+import ru.maxima.springbootapp.library.events.CatalogueVersions;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.projections.BookSearchResult;
 import ru.maxima.springbootapp.library.services.BooksRestService;
 import ru.maxima.springbootapp.library.services.BooksService;
+import ru.maxima.springbootapp.library.services.BulkImportService;
+import ru.maxima.springbootapp.library.services.DeltaSyncService;
 import ru.maxima.springbootapp.library.services.PeopleService;
 import ru.maxima.springbootapp.library.util.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 @RestController
 @RequestMapping("/api/books")
 public class BooksRestController {
 
+    private static final int DEFAULT_PAGE_LIMIT = 100;
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final int DEFAULT_SEARCH_SIZE = 20;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int DEFAULT_DELTA_LIMIT = 500;
+    private static final int MAX_DELTA_LIMIT = 1000;
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
     private final PeopleService peopleService;
     private final BooksService booksService;
     private final BooksRestService booksRestService;
     private final BookDTO bookDTO;
 
     private final PersonDTO personDTO;
-    private final ModelMapper modelMapper;
+    private final ObjectMapper objectMapper;
+    private final BulkImportService bulkImportService;
+    private final CatalogueVersions catalogueVersions;
+    private final DeltaSyncService deltaSyncService;
     @Autowired
     public BooksRestController(PeopleService peopleService, BooksService booksService,
                                BooksRestService booksRestService, BookDTO bookDTO,
-                               PersonDTO personDTO, ModelMapper modelMapper) {
+                               PersonDTO personDTO, ObjectMapper objectMapper,
+                               BulkImportService bulkImportService,
+                               CatalogueVersions catalogueVersions, DeltaSyncService deltaSyncService) {
         this.peopleService = peopleService;
         this.booksService = booksService;
         this.booksRestService = booksRestService;
         this.bookDTO = bookDTO;
         this.personDTO = personDTO;
-        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
+        this.bulkImportService = bulkImportService;
+        this.catalogueVersions = catalogueVersions;
+        this.deltaSyncService = deltaSyncService;
     }
 
     @GetMapping("/backdoor")
@@ -52,7 +98,9 @@ public class BooksRestController {
 
     /*****
      * GET localhost:8080/api/books/all
-     * Response OK = 200
+     * The list endpoints carry a catalogue ETag that changes on any book write,
+     * send it back in If-None-Match to get NOT_MODIFIED = 304 without a body
+     * Response OK = 200, ETag: "books-1680787530788-42"
      *  {
      *    "id": 13,
      *    "name": "The Silence of the Lambs",
@@ -69,10 +117,173 @@ public class BooksRestController {
      *  }
      * */
     @GetMapping("/all")
-    public List<BookDTO> getAllBooksCutInfo() {
+    public ResponseEntity<StreamingResponseBody> getAllBooksCutInfo(ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, catalogueVersions.booksETag())) {
+            return null;
+        }
+        if (booksService.isEmpty()) {
+            throw new BookListIsEmptyException();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(out)) {
+                        writeAllBooks(writer);
+                    }
+                });
+    }
+
 
-        List<BookDTO> list = booksService.findAll().stream()
+    /*****
+     * GET localhost:8080/api/books/stream
+     * Response OK = 200, Content-Type: application/x-ndjson
+     *  {"id":13,"name":"The Silence of the Lambs","yearOfProduction":1988,...}
+     *  {"id":14,"name":"From Russia, with Love","yearOfProduction":1957,...}
+     * Response NO_CONTENT = 204
+     *  {
+     *    "message": "There are no books in library",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllBooksCutInfo(ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, catalogueVersions.booksETag())) {
+            return null;
+        }
+        if (booksService.isEmpty()) {
+            throw new BookListIsEmptyException();
+        }
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .body(out -> {
+                    try (SequenceWriter writer = objectMapper.writer()
+                            .withRootValueSeparator("\n").writeValues(out)) {
+                        writeAllBooks(writer);
+                    }
+                });
+    }
+
+    private void writeAllBooks(SequenceWriter writer) {
+        booksService.forEach(book -> {
+            try {
+                writer.write(convertToBookDTO(book));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+
+    /*****
+     * GET localhost:8080/api/books/page?after=13&limit=2
+     * "after" is the last id of the previous page (omit it for the first page),
+     * "limit" is 100 by default and never more than 1000
+     * Response OK = 200
+     *  {
+     *    "books": [
+     *      { "id": 14, "name": "From Russia, with Love", ... },
+     *      { "id": 15, "name": "First Blood", ... }
+     *    ],
+     *    "next": 15   // null on the last page
+     *  }
+     * */
+    @GetMapping("/page")
+    public BookPageDTO getBooksPage(@RequestParam(value = "after", required = false) Long after,
+                                    @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_LIMIT) int limit,
+                                    ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, catalogueVersions.booksETag())) {
+            return null;
+        }
+        int pageLimit = Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        List<BookDTO> books = booksService.findPage(after, pageLimit).stream()
                 .map(this::convertToBookDTO).toList();
+        Long next = books.size() == pageLimit ? books.get(books.size() - 1).getId() : null;
+        return new BookPageDTO(books, next);
+    }
+
+
+    /*****
+     * GET localhost:8080/api/books/changed?since=2023-04-06T13:25:30.788&afterId=13&limit=500
+     * Books created, updated or removed after the watermark, oldest change first;
+     * removed books come as tombstones. Omit "since" for a full sync, then send back
+     * "since" and "afterId" from the response until "more" is false.
+     * The last few seconds of changes are held back until they settle.
+     * "limit" is 500 by default and never more than 1000
+     * Response OK = 200
+     *  {
+     *    "changes": [
+     *      {
+     *        "id": 14,
+     *        "name": "From Russia, with Love",
+     *        "yearOfProduction": 1957,
+     *        "author": "Ian Fleming",
+     *        "annotation": "Some text.",
+     *        "personId": null,
+     *        "removed": true,
+     *        "changedAt": "2023-04-06T13:26:02.117"
+     *      }
+     *    ],
+     *    "since": "2023-04-06T13:26:02.117",
+     *    "afterId": 14,
+     *    "more": false
+     *  }
+     * */
+    @GetMapping("/changed")
+    public DeltaPageDTO<BookDeltaDTO> getChangedBooks(
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_DELTA_LIMIT) int limit) {
+        return deltaSyncService.findBooksChangedSince(since == null ? DeltaSyncService.FULL_SYNC : since,
+                afterId, Math.max(1, Math.min(limit, MAX_DELTA_LIMIT)));
+    }
+
+
+    /*****
+     * GET localhost:8080/api/books/search?q=harr sil&page=0&size=20
+     * Every word is matched as a prefix of a word in title, author or annotation,
+     * results are ranked (title > author > annotation), removed books are skipped,
+     * "size" is 20 by default and never more than 100
+     * Response OK = 200
+     *  [
+     *    {
+     *      "id": 13,
+     *      "name": "The Silence of the Lambs",
+     *      "yearOfProduction": 1988,
+     *      "author": "Thomas Harris",
+     *      "annotation": "Some text.",
+     *      "personId": null,
+     *      "removed": false,
+     *      "rank": 0.6079271
+     *    }
+     *  ]
+     * Response NO_CONTENT = 204
+     *  {
+     *    "message": "There are no books in library",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * Response BAD_REQUEST = 400
+     *  {
+     *    "message": "q : Search query shouldn't be empty",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    @GetMapping("/search")
+    public List<BookSearchResult> search(@RequestParam(value = "q", required = false) String query,
+                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                         @RequestParam(value = "size", defaultValue = "" + DEFAULT_SEARCH_SIZE) int size,
+                                         ServletWebRequest request) {
+        if (query == null || query.isBlank()) {
+            throw new BooksNotProcessedException("q : Search query shouldn't be empty");
+        }
+        if (ConditionalGet.notModified(request, catalogueVersions.booksETag())) {
+            return null;
+        }
+        List<BookSearchResult> list = booksService.search(query, false, Math.max(page, 0),
+                Math.max(1, Math.min(size, MAX_SEARCH_SIZE))).getContent();
         if (list.isEmpty()) {
             throw new BookListIsEmptyException();
         }
@@ -82,7 +293,8 @@ public class BooksRestController {
 
     /*****
      * GET localhost:8080/api/books/id
-     * Response OK = 200
+     * If-None-Match / If-Modified-Since are honoured, NOT_MODIFIED = 304 has no body
+     * Response OK = 200, ETag: "13-2", Last-Modified: Thu, 06 Apr 2023 10:25:30 GMT
      *  {
      *    "id": 13,
      *    "name": "The Silence of the Lambs",
@@ -99,14 +311,18 @@ public class BooksRestController {
      *  }
      * */
     @GetMapping("/{id}")
-    public BookDTO getBook(@PathVariable("id") Long id) {
-
-        return convertToBookDTO(booksService.findOne(id));
+    public BookDTO getBook(@PathVariable("id") Long id, ServletWebRequest request) {
+        Book book = booksService.findOne(id);
+        if (ConditionalGet.notModified(request, ConditionalGet.eTag(book.getId(), book.getVersion()),
+                ConditionalGet.lastModified(book.getCreatedAt(), book.getUpdatedAt(), book.getRemovedAt()))) {
+            return null;
+        }
+        return convertToBookDTO(book);
     }
 
     private BookDTO convertToBookDTO(Book book) {
 
-        return modelMapper.map(book, BookDTO.class);
+        return DtoConverter.toBookDTO(book);
     }
 
 
@@ -143,15 +359,44 @@ public class BooksRestController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
     private Book convertToBook(BookDTO bookDTO) {
-        Book book = new Book();
-        book.setName(bookDTO.getName());
-        book.setYearOfProduction(bookDTO.getYearOfProduction());
-        book.setAuthor(bookDTO.getAuthor());
-        book.setAnnotation(bookDTO.getAnnotation());
-        book.setPersonId(bookDTO.getPersonId());
-
-        return book;
-//        return modelMapper.map(bookDTO, Book.class);
+
+        return DtoConverter.toBook(bookDTO);
+    }
+
+
+    /*****
+     * POST localhost:8080/api/books/bulk
+     * RequestBody is a JSON array (Content-Type: application/json)
+     *  [
+     *    { "name": "The Silence of the Lambs", "yearOfProduction": 1988, "author": "Thomas Harris" },
+     *    { "name": "", "author": "Ian Fleming" }
+     *  ]
+     * or CSV with a header line (Content-Type: text/csv)
+     *  name,yearOfProduction,author,annotation
+     *  The Silence of the Lambs,1988,Thomas Harris,"Well, well."
+     * Records are read one at a time and inserted in JDBC batches
+     * Response OK = 200
+     *  {
+     *    "received": 2,
+     *    "imported": 1,
+     *    "errors": [
+     *      { "record": 2, "message": "name : Title shouldn't be empty" }
+     *    ]
+     *  }
+     * */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkImportReportDTO bulkCreate(InputStream body) throws IOException {
+        try (MappingIterator<BookDTO> records = objectMapper.readerFor(BookDTO.class).readValues(body)) {
+            return bulkImportService.importRecords(records, this::convertToBook, booksRestService::saveAll);
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public BulkImportReportDTO bulkCreateFromCsv(InputStream body) throws IOException {
+        try (MappingIterator<BookDTO> records = CSV_MAPPER.readerFor(BookDTO.class)
+                .with(CsvSchema.emptySchema().withHeader()).readValues(body)) {
+            return bulkImportService.importRecords(records, this::convertToBook, booksRestService::saveAll);
+        }
     }
 
 
@@ -211,6 +456,12 @@ public class BooksRestController {
      *     "timestamp": "2023-04-06T09:23:34.287+00:00",
      *     "timezone": "Europe/Moscow"
      *   }
+     * Response CONFLICT = 409 when the book was changed at the same time
+     *   {
+     *     "message": "Book was changed at the same time, reload it and try again",
+     *     "timestamp": "2023-04-06T09:23:34.287+00:00",
+     *     "timezone": "Europe/Moscow"
+     *   }
      * */
     @PutMapping("/{id}")
     public ResponseEntity<HttpStatus> update(@PathVariable("id") Long id,
@@ -247,19 +498,106 @@ public class BooksRestController {
      * */
     @GetMapping("/{id}/owner")
     public PersonDTO getOwnerOfBook(@PathVariable("id") Long id) {
-        Long personId = booksService.findOne(id).getPersonId();
-        if (personId == null) {
+        Person person = booksService.findOwner(id);
+        if (person == null) {
             throw new BookIsFreeException();
         }
-        Person person = peopleService.findOne(personId);
         return convertToPersonDTO(person);
     }
     private PersonDTO convertToPersonDTO(Person person) {
 
-        return modelMapper.map(person, PersonDTO.class);
+        return DtoConverter.toPersonDTO(person);
     }
 
 
+
+    /*****
+     * POST localhost:8080/api/books/checkout
+     * RequestBody requires JSON
+     *  {
+     *    "personId": 10,           // Required field
+     *    "bookIds": [13, 14, 15]   // Required field
+     *  }
+     * All free books are assigned to the person at once
+     * Response OK = 200
+     *  {
+     *    "processed": [13, 15],
+     *    "unavailable": [14]       // busy, removed or not found
+     *  }
+     * Response BAD_REQUEST = 400
+     *  {
+     *    "message": "bookIds : Book list shouldn't be empty",
+     *    "timestamp": "2023-04-06T09:23:34.287+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * Response NOT_FOUND = 404
+     *  {
+     *    "message": "Person not found",
+     *    "timestamp": "2023-04-06T09:23:34.287+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    @PostMapping("/checkout")
+    public BookLoanResultDTO checkout(@RequestBody @Valid BookLoanRequestDTO request,
+                                      BindingResult bindingResult) {
+        checkLoanRequest(bindingResult);
+        List<Long> assigned = booksService.assignBooksToPerson(request.getBookIds(), request.getPersonId());
+        return toLoanResult(request.getBookIds(), assigned);
+    }
+
+
+    /*****
+     * POST localhost:8080/api/books/return
+     * RequestBody requires JSON
+     *  {
+     *    "personId": 10,           // Required field
+     *    "bookIds": [13, 14, 15]   // Required field
+     *  }
+     * All books the person holds are returned at once
+     * Response OK = 200
+     *  {
+     *    "processed": [13, 15],
+     *    "unavailable": [14]       // not on loan to this person
+     *  }
+     * Response BAD_REQUEST = 400 and NOT_FOUND = 404 as for /checkout
+     * */
+    @PostMapping("/return")
+    public BookLoanResultDTO giveBack(@RequestBody @Valid BookLoanRequestDTO request,
+                                      BindingResult bindingResult) {
+        checkLoanRequest(bindingResult);
+        List<Long> unlinked = booksService.unlinkBooksFromPerson(request.getBookIds(), request.getPersonId());
+        return toLoanResult(request.getBookIds(), unlinked);
+    }
+
+    private void checkLoanRequest(BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            StringBuilder bld = new StringBuilder();
+            bindingResult.getFieldErrors().forEach(error -> {
+                bld.append(error.getField())
+                        .append(" : ")
+                        .append(error.getDefaultMessage());
+            });
+            throw new BooksNotProcessedException(bld.toString());
+        }
+    }
+
+    private BookLoanResultDTO toLoanResult(List<Long> requested, List<Long> processed) {
+        Set<Long> done = new HashSet<>(processed);
+        List<Long> unavailable = requested.stream()
+                .distinct()
+                .filter(id -> !done.contains(id))
+                .toList();
+        return new BookLoanResultDTO(processed, unavailable);
+    }
+
+
+    @ExceptionHandler
+    public ResponseEntity<BookErrorResponse> handelException(ObjectOptimisticLockingFailureException e) {
+        BookErrorResponse response = new BookErrorResponse(
+                "Book was changed at the same time, reload it and try again", new Date(), TimeZone.getDefault());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler
     public ResponseEntity<BookErrorResponse> handelException(BookNotFoundException e) {
         BookErrorResponse response = new BookErrorResponse(
@@ -288,4 +626,18 @@ public class BooksRestController {
         return new ResponseEntity<>(response, HttpStatus.NO_CONTENT);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<BookErrorResponse> handelException(BooksNotProcessedException e) {
+        BookErrorResponse response = new BookErrorResponse(
+                e.getMessage(), new Date(), TimeZone.getDefault());
+        return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<PersonErrorResponse> handelException(PersonNotFoundException e) {
+        PersonErrorResponse response = new PersonErrorResponse(
+                "Person not found", new Date(), TimeZone.getDefault());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
 }
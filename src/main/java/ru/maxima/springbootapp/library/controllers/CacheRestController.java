@@ -0,0 +1,57 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.maxima.springbootapp.library.dto.CacheRegionStatsDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheRestController {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheRestController(EntityManagerFactory entityManagerFactory) {
+
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+
+    /*****
+     * GET localhost:8080/api/cache/stats
+     * Response OK = 200
+     *  [
+     *    { "region": "book", "hits": 120, "misses": 4, "puts": 4, "size": 4 },
+     *    { "region": "person", "hits": 37, "misses": 2, "puts": 2, "size": 2 },
+     *    { "region": "query", "hits": 55, "misses": 9, "puts": 9, "size": 0 }
+     *  ]
+     * */
+    @GetMapping("/stats")
+    public List<CacheRegionStatsDTO> getCacheStats() {
+        List<CacheRegionStatsDTO> list = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            list.add(new CacheRegionStatsDTO(region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    regionStatistics.getElementCountInMemory()));
+        }
+        list.add(new CacheRegionStatsDTO("query",
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(),
+                0));
+        return list;
+    }
+
+}
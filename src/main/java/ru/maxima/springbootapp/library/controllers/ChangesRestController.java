@@ -0,0 +1,72 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.maxima.springbootapp.library.dto.ChangeFeedDTO;
+import ru.maxima.springbootapp.library.services.ChangeFeedService;
+import ru.maxima.springbootapp.library.util.ChangeFeedErrorResponse;
+import ru.maxima.springbootapp.library.util.ChangeFeedExpiredException;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+@RestController
+@RequestMapping("/api/changes")
+public class ChangesRestController {
+
+    private static final int DEFAULT_LIMIT = 500;
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeFeedService changeFeedService;
+
+    @Autowired
+    public ChangesRestController(ChangeFeedService changeFeedService) {
+
+        this.changeFeedService = changeFeedService;
+    }
+
+
+    /*****
+     * GET localhost:8080/api/changes?since=1200&limit=500
+     * Every committed write to books and people, in commit order. "since" is the
+     * "next" of the previous response (0 to start from the oldest kept event),
+     * "limit" is 500 by default and never more than 1000. Events only say what
+     * changed; read the row for its current state
+     * Response OK = 200
+     *  {
+     *    "changes": [
+     *      { "position": 1201, "entity": "book", "id": 13, "type": "ASSIGN",
+     *        "occurredAt": "2023-04-06T13:25:30.788" },
+     *      { "position": 1202, "entity": "person", "id": 20, "type": "UPDATE",
+     *        "occurredAt": "2023-04-06T13:25:31.015" }
+     *    ],
+     *    "next": 1202   // equals "since" when there is nothing new yet
+     *  }
+     * Response GONE = 410 when events after "since" were already removed by
+     * retention; resync in full and continue from since=0
+     *  {
+     *    "message": "Changes after 1200 are no longer kept, resync in full and continue from since=0",
+     *    "timestamp": "2023-04-06T13:25:30.788+00:00",
+     *    "timezone": "Europe/Moscow"
+     *  }
+     * */
+    @GetMapping
+    public ChangeFeedDTO getChanges(@RequestParam(value = "since", defaultValue = "0") long since,
+                                    @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit) {
+
+        return changeFeedService.findSince(Math.max(since, 0), Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ChangeFeedErrorResponse> handelException(ChangeFeedExpiredException e) {
+        ChangeFeedErrorResponse response = new ChangeFeedErrorResponse(
+                e.getMessage(), new Date(), TimeZone.getDefault());
+        return new ResponseEntity<>(response, HttpStatus.GONE);
+    }
+}
@@ -0,0 +1,89 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.maxima.springbootapp.library.dto.LoanDurationDTO;
+import ru.maxima.springbootapp.library.dto.ReaderLoansDTO;
+import ru.maxima.springbootapp.library.dto.TitleLoansDTO;
+import ru.maxima.springbootapp.library.services.LoanStatsService;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loans")
+public class LoansRestController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final LoanStatsService loanStatsService;
+
+    @Autowired
+    public LoansRestController(LoanStatsService loanStatsService) {
+
+        this.loanStatsService = loanStatsService;
+    }
+
+
+    /*****
+     * GET localhost:8080/api/loans/top-titles?from=2023-01&to=2023-04&limit=10
+     * Titles by number of checkouts in the months from..to (both included),
+     * the last 12 months by default; "limit" is 10 by default and never more than 100
+     * Response OK = 200
+     *  [
+     *    { "name": "The Silence of the Lambs", "author": "Thomas Harris", "loans": 42 },
+     *    { "name": "First Blood", "author": "David Morrell", "loans": 17 }
+     *  ]
+     * */
+    @GetMapping("/top-titles")
+    public List<TitleLoansDTO> getMostBorrowed(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        YearMonth toMonth = to == null ? YearMonth.now() : to;
+        return loanStatsService.findMostBorrowed(from == null ? toMonth.minusMonths(11) : from, toMonth,
+                Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+
+    /*****
+     * GET localhost:8080/api/loans/active?limit=10
+     * Readers with books on loan right now, most books first
+     * Response OK = 200
+     *  [
+     *    { "personId": 20, "name": "Gabriel", "active": 3, "total": 57 }
+     *  ]
+     * */
+    @GetMapping("/active")
+    public List<ReaderLoansDTO> getActiveByReader(
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit) {
+
+        return loanStatsService.findActiveByReader(Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+
+    /*****
+     * GET localhost:8080/api/loans/duration?from=2023-01&to=2023-04
+     * Average loan length of the books returned in the months from..to (both
+     * included), the last 12 months by default; null when nothing was returned
+     * Response OK = 200
+     *  {
+     *    "from": "2023-01-01",
+     *    "to": "2023-05-01",
+     *    "returns": 311,
+     *    "averageHours": 236.4
+     *  }
+     * */
+    @GetMapping("/duration")
+    public LoanDurationDTO getAverageDuration(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        YearMonth toMonth = to == null ? YearMonth.now() : to;
+        return loanStatsService.findAverageDuration(from == null ? toMonth.minusMonths(11) : from, toMonth);
+    }
+}
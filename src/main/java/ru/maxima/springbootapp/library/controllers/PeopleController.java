@@ -2,17 +2,25 @@ package ru.maxima.springbootapp.library.controllers;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import ru.maxima.springbootapp.library.models.Person;
 import ru.maxima.springbootapp.library.services.PeopleService;
+import ru.maxima.springbootapp.library.util.SortWhitelist;
+
+import java.util.Set;
 
 @Controller
 @RequestMapping("/people")
 public class PeopleController {
 
+    private static final Set<String> SORTABLE = Set.of("id", "name", "age");
+
     private final PeopleService peopleService;
 
     @Autowired
@@ -21,15 +29,21 @@ public class PeopleController {
     }
 
     @GetMapping()
-    public String index(Model model) {
-        model.addAttribute("people", peopleService.findAll());
+    public String index(@PageableDefault(size = 50, sort = "id") Pageable pageable,
+                        Model model) {
+        Pageable sorted = SortWhitelist.restrict(pageable, SORTABLE);
+        Slice<Person> page = peopleService.findAll(sorted);
+        model.addAttribute("page", page);
+        model.addAttribute("people", page.getContent());
+        model.addAttribute("sort", SortWhitelist.toParam(sorted));
         return "people/index";
     }
 
     @GetMapping("/{id}")
     public String show(@PathVariable("id") Long id, Model model) {
-        model.addAttribute("person", peopleService.findOne(id));
-        model.addAttribute("booksInUse", peopleService.findBooksInUse(id));
+        Person person = peopleService.findOneWithBooksInUse(id);
+        model.addAttribute("person", person);
+        model.addAttribute("booksInUse", person.getBooksInUse());
         return "people/show";
     }
 
@@ -1,22 +1,39 @@
 package ru.maxima.springbootapp.library.controllers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.maxima.springbootapp.library.dto.BookDTO;
+import ru.maxima.springbootapp.library.dto.BulkImportReportDTO;
+import ru.maxima.springbootapp.library.dto.DeltaPageDTO;
+import ru.maxima.springbootapp.library.dto.DtoConverter;
 import ru.maxima.springbootapp.library.dto.PersonDTO;
+import ru.maxima.springbootapp.library.dto.PersonDeltaDTO;
+import ru.maxima.springbootapp.library.events.CatalogueVersions;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.models.Person;
 import ru.maxima.springbootapp.library.repositories.BooksRepository;
 import ru.maxima.springbootapp.library.services.BooksService;
+import ru.maxima.springbootapp.library.services.BulkImportService;
+import ru.maxima.springbootapp.library.services.DeltaSyncService;
 import ru.maxima.springbootapp.library.services.PeopleRestService;
 import ru.maxima.springbootapp.library.services.PeopleService;
 import ru.maxima.springbootapp.library.util.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.Date;
 import java.util.List;
 import java.util.TimeZone;
@@ -24,24 +41,38 @@ import java.util.TimeZone;
 @RestController
 @RequestMapping("/api/people")
 public class PeopleRestController {
+    private static final int DEFAULT_DELTA_LIMIT = 500;
+    private static final int MAX_DELTA_LIMIT = 1000;
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+
     private final PeopleService peopleService;
     private final BooksService booksService;
     private final PeopleRestService peopleRestService;
     private final PersonDTO personDTO;
-    private final ModelMapper modelMapper;
 
     private final BooksRepository booksRepository;
+    private final ObjectMapper objectMapper;
+    private final BulkImportService bulkImportService;
+    private final CatalogueVersions catalogueVersions;
+    private final DeltaSyncService deltaSyncService;
 
     @Autowired
     public PeopleRestController(PeopleService peopleService, PersonDTO personDTO,
-                                ModelMapper modelMapper, PeopleRestService peopleRestService,
-                                BooksService booksService, BooksRepository booksRepository) {
+                                PeopleRestService peopleRestService,
+                                BooksService booksService, BooksRepository booksRepository,
+                                ObjectMapper objectMapper, BulkImportService bulkImportService,
+                                CatalogueVersions catalogueVersions, DeltaSyncService deltaSyncService) {
         this.peopleService = peopleService;
         this.personDTO = personDTO;
-        this.modelMapper = modelMapper;
         this.peopleRestService = peopleRestService;
         this.booksService = booksService;
         this.booksRepository = booksRepository;
+        this.objectMapper = objectMapper;
+        this.bulkImportService = bulkImportService;
+        this.catalogueVersions = catalogueVersions;
+        this.deltaSyncService = deltaSyncService;
     }
 
     @GetMapping("/backdoor")
@@ -53,7 +84,8 @@ public class PeopleRestController {
 
     /*****
      * GET localhost:8080/api/people/all
-     * Response OK = 200
+     * The ETag changes on any person write, NOT_MODIFIED = 304 when it matches If-None-Match
+     * Response OK = 200, ETag: "people-1680787530788-7"
      *   {
      *     "id": 20,
      *     "name": "Gabriel",
@@ -69,8 +101,10 @@ public class PeopleRestController {
      *  }
      * */
     @GetMapping("/all")
-    public List<PersonDTO> getAllPeopleCutInfo() {
-
+    public List<PersonDTO> getAllPeopleCutInfo(ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, catalogueVersions.peopleETag())) {
+            return null;
+        }
         List<PersonDTO> list = peopleService.findAll().stream()
                 .map(this::convertToPersonDTO).toList();
         if (list.isEmpty()) {
@@ -81,8 +115,45 @@ public class PeopleRestController {
 
 
     /*****
-     * GET localhost:8080/api/people/id
+     * GET localhost:8080/api/people/changed?since=2023-04-06T13:25:30.788&afterId=20&limit=500
+     * Readers created, updated or removed after the watermark, oldest change first;
+     * removed readers come as tombstones. Omit "since" for a full sync, then send back
+     * "since" and "afterId" from the response until "more" is false.
+     * The last few seconds of changes are held back until they settle.
+     * "limit" is 500 by default and never more than 1000
      * Response OK = 200
+     *  {
+     *    "changes": [
+     *      {
+     *        "id": 20,
+     *        "name": "Gabriel",
+     *        "age": 95,
+     *        "email": "gab@mail.com",
+     *        "phoneNumber": "+000000-000-000",
+     *        "removed": false,
+     *        "changedAt": "2023-04-06T13:26:02.117"
+     *      }
+     *    ],
+     *    "since": "2023-04-06T13:26:02.117",
+     *    "afterId": 20,
+     *    "more": false
+     *  }
+     * */
+    @GetMapping("/changed")
+    public DeltaPageDTO<PersonDeltaDTO> getChangedPeople(
+            @RequestParam(value = "since", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(value = "afterId", defaultValue = "0") long afterId,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_DELTA_LIMIT) int limit) {
+        return deltaSyncService.findPeopleChangedSince(since == null ? DeltaSyncService.FULL_SYNC : since,
+                afterId, Math.max(1, Math.min(limit, MAX_DELTA_LIMIT)));
+    }
+
+
+    /*****
+     * GET localhost:8080/api/people/id
+     * If-None-Match / If-Modified-Since are honoured, NOT_MODIFIED = 304 has no body
+     * Response OK = 200, ETag: "20-1", Last-Modified: Thu, 06 Apr 2023 08:52:06 GMT
      *   {
      *     "id": 20,
      *     "name": "Gabriel",
@@ -98,14 +169,18 @@ public class PeopleRestController {
      *   }
      * */
     @GetMapping("/{id}")
-    public PersonDTO getPerson(@PathVariable("id") Long id) {
-
-        return convertToPersonDTO(peopleService.findOne(id));
+    public PersonDTO getPerson(@PathVariable("id") Long id, ServletWebRequest request) {
+        Person person = peopleService.findOne(id);
+        if (ConditionalGet.notModified(request, ConditionalGet.eTag(person.getId(), person.getVersion()),
+                ConditionalGet.lastModified(person.getCreatedAt(), person.getUpdatedAt(), person.getRemovedAt()))) {
+            return null;
+        }
+        return convertToPersonDTO(person);
     }
 
     private PersonDTO convertToPersonDTO(Person person) {
 
-        return modelMapper.map(person, PersonDTO.class);
+        return DtoConverter.toPersonDTO(person);
     }
 
 
@@ -142,14 +217,44 @@ public class PeopleRestController {
         return ResponseEntity.ok(HttpStatus.OK);
     }
     private Person convertToPerson(PersonDTO personDTO) {
-        Person person = new Person();
-        person.setName(personDTO.getName());
-        person.setAge(personDTO.getAge());
-        person.setEmail(personDTO.getEmail());
-        person.setPhoneNumber(personDTO.getPhoneNumber());
-
-        return person;
-//        return modelMapper.map(personDTO, Person.class);
+
+        return DtoConverter.toPerson(personDTO);
+    }
+
+
+    /*****
+     * POST localhost:8080/api/people/bulk
+     * RequestBody is a JSON array (Content-Type: application/json)
+     *   [
+     *     { "name": "Gabriel", "age": 95, "email": "gab@mail.com", "phoneNumber": "+000000-000-000" },
+     *     { "name": "", "age": 20 }
+     *   ]
+     * or CSV with a header line (Content-Type: text/csv)
+     *   name,age,email,phoneNumber
+     *   Gabriel,95,gab@mail.com,+000000-000-000
+     * Records are read one at a time and inserted in JDBC batches
+     * Response OK = 200
+     *   {
+     *     "received": 2,
+     *     "imported": 1,
+     *     "errors": [
+     *       { "record": 2, "message": "name : Name shouldn't be empty" }
+     *     ]
+     *   }
+     * */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public BulkImportReportDTO bulkCreate(InputStream body) throws IOException {
+        try (MappingIterator<PersonDTO> records = objectMapper.readerFor(PersonDTO.class).readValues(body)) {
+            return bulkImportService.importRecords(records, this::convertToPerson, peopleRestService::saveAll);
+        }
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public BulkImportReportDTO bulkCreateFromCsv(InputStream body) throws IOException {
+        try (MappingIterator<PersonDTO> records = CSV_MAPPER.readerFor(PersonDTO.class)
+                .with(CsvSchema.emptySchema().withHeader()).readValues(body)) {
+            return bulkImportService.importRecords(records, this::convertToPerson, peopleRestService::saveAll);
+        }
     }
 
 
@@ -246,8 +351,10 @@ public class PeopleRestController {
      *  }
      * */
     @GetMapping("/{id}/books")
-    public List<BookDTO> getBooksInUse(@PathVariable("id") Long id) {
-
+    public List<BookDTO> getBooksInUse(@PathVariable("id") Long id, ServletWebRequest request) {
+        if (ConditionalGet.notModified(request, catalogueVersions.booksETag())) {
+            return null;
+        }
         List<Book> list = booksRepository.findByPersonId(id);
         if (list.isEmpty()) {
             throw new BookListIsEmptyException();
@@ -257,7 +364,7 @@ public class PeopleRestController {
     }
     private BookDTO convertToBookDTO(Book book) {
 
-        return modelMapper.map(book, BookDTO.class);
+        return DtoConverter.toBookDTO(book);
     }
 
 
@@ -1,32 +1,42 @@
 package ru.maxima.springbootapp.library.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.services.AvailabilityIndex;
 import ru.maxima.springbootapp.library.services.BooksService;
 
-import java.security.Principal;
-
 @Controller
 @RequestMapping("/reader")
 public class ReaderController {
 
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static final int TITLES_PAGE_SIZE = 50;
+
     private final BooksService booksService;
+    private final AvailabilityIndex availabilityIndex;
 
     @Autowired
-    public ReaderController(BooksService booksService) {
-
+    public ReaderController(BooksService booksService, AvailabilityIndex availabilityIndex) {
         this.booksService = booksService;
+        this.availabilityIndex = availabilityIndex;
     }
 
     @GetMapping()
     public String index(@ModelAttribute("book") Book book,
-                        Model model, Principal principal) {
+                        @RequestParam(value = "page", defaultValue = "0") int page,
+                        @RequestParam(value = "q", required = false) String query,
+                        Model model) {
 
-        model.addAttribute("booksInUse", booksService.findBooksByPrincipal(principal.getName()));
-        model.addAttribute("booksForChoose", booksService.findUniqueFree());
+        model.addAttribute("booksInUse", booksService.findBooksByPrincipal());
+        model.addAttribute("booksForChoose", availabilityIndex.findFreeTitles(Math.max(page, 0), TITLES_PAGE_SIZE));
+        if (query != null && !query.isBlank()) {
+            model.addAttribute("booksFound", booksService.search(query, true, 0, SEARCH_PAGE_SIZE).getContent());
+        }
+        model.addAttribute("query", query);
         return "reader/index";
     }
 
@@ -51,8 +61,16 @@ public class ReaderController {
 
     @PostMapping("/assign/{id}")
     public String assignBookToPrincipal(@PathVariable("id") Long id) {
-        booksService.assignBookToPrincipal(id);
+        if (!booksService.assignBookToPrincipal(id)) {
+            return "redirect:/reader?busy";
+        }
         return "redirect:/reader";
     }
 
+    @ExceptionHandler
+    public String handelException(ObjectOptimisticLockingFailureException e) {
+
+        return "redirect:/reader?changed";
+    }
+
 }
@@ -0,0 +1,43 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.maxima.springbootapp.library.dto.LibraryStatsDTO;
+import ru.maxima.springbootapp.library.services.LibraryStats;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsRestController {
+
+    private final LibraryStats libraryStats;
+
+    @Autowired
+    public StatsRestController(LibraryStats libraryStats) {
+
+        this.libraryStats = libraryStats;
+    }
+
+
+    /*****
+     * GET localhost:8080/api/stats
+     * Catalogue totals kept in memory; "reconciledAt" is when they were last
+     * recounted from the database (null until the first recount)
+     * Response OK = 200
+     *  {
+     *    "books": 1204,
+     *    "booksOnLoan": 318,
+     *    "booksRemoved": 27,
+     *    "people": 450,
+     *    "activeReaders": 131,
+     *    "peopleRemoved": 6,
+     *    "reconciledAt": "2023-04-12T10:15:00.125"
+     *  }
+     * */
+    @GetMapping()
+    public LibraryStatsDTO getStats() {
+
+        return libraryStats.current();
+    }
+}
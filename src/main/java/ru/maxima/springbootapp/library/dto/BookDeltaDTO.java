@@ -0,0 +1,23 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A book row as seen by delta sync; removed rows come as tombstones with
+ * removed = true.
+ */
+@Setter
+@Getter
+public class BookDeltaDTO {
+    private Long id;
+    private String name;
+    private Integer yearOfProduction;
+    private String author;
+    private String annotation;
+    private Long personId;
+    private Boolean removed;
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,18 @@
+package ru.maxima.springbootapp.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BookLoanRequestDTO {
+    @NotNull(message = "Person shouldn't be empty")
+    private Long personId;
+    @NotEmpty(message = "Book list shouldn't be empty")
+    private List<@NotNull Long> bookIds;
+
+}
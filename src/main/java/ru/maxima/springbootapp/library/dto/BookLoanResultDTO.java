@@ -0,0 +1,18 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BookLoanResultDTO {
+    private List<Long> processed;
+    private List<Long> unavailable;
+
+    public BookLoanResultDTO(List<Long> processed, List<Long> unavailable) {
+        this.processed = processed;
+        this.unavailable = unavailable;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class BookPageDTO {
+    private List<BookDTO> books;
+    private Long next;
+
+    public BookPageDTO(List<BookDTO> books, Long next) {
+        this.books = books;
+        this.next = next;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class BulkImportErrorDTO {
+    private long record;
+    private String message;
+
+    public BulkImportErrorDTO(long record, String message) {
+        this.record = record;
+        this.message = message;
+    }
+}
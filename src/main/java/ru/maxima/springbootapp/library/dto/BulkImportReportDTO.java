@@ -0,0 +1,20 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Setter
+@Getter
+public class BulkImportReportDTO {
+    private long received;
+    private long imported;
+    private List<BulkImportErrorDTO> errors = new ArrayList<>();
+
+    public void addError(long record, String message) {
+
+        errors.add(new BulkImportErrorDTO(record, message));
+    }
+}
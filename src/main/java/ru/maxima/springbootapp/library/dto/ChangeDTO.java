@@ -0,0 +1,17 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.maxima.springbootapp.library.events.ChangeType;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+public class ChangeDTO {
+    private Long position;
+    private String entity;
+    private Long id;
+    private ChangeType type;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,18 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Setter
+@Getter
+public class ChangeFeedDTO {
+    private List<ChangeDTO> changes;
+    private Long next;
+
+    public ChangeFeedDTO(List<ChangeDTO> changes, Long next) {
+        this.changes = changes;
+        this.next = next;
+    }
+}
@@ -0,0 +1,27 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of delta sync. "since" and "afterId" are the watermark to send
+ * with the next request, "more" says whether to ask again right away.
+ */
+@Setter
+@Getter
+public class DeltaPageDTO<T> {
+    private List<T> changes;
+    private LocalDateTime since;
+    private Long afterId;
+    private boolean more;
+
+    public DeltaPageDTO(List<T> changes, LocalDateTime since, Long afterId, boolean more) {
+        this.changes = changes;
+        this.since = since;
+        this.afterId = afterId;
+        this.more = more;
+    }
+}
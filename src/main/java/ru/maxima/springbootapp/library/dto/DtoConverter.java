@@ -0,0 +1,54 @@
+package ru.maxima.springbootapp.library.dto;
+
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+/**
+ * Plain field-by-field conversions between entities and DTOs. Used instead of
+ * ModelMapper on the REST paths, where per-object reflection dominated the cost.
+ */
+public final class DtoConverter {
+
+    private DtoConverter() {
+    }
+
+    public static BookDTO toBookDTO(Book book) {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(book.getId());
+        bookDTO.setName(book.getName());
+        bookDTO.setYearOfProduction(book.getYearOfProduction());
+        bookDTO.setAuthor(book.getAuthor());
+        bookDTO.setAnnotation(book.getAnnotation());
+        bookDTO.setPersonId(book.getPersonId());
+        return bookDTO;
+    }
+
+    public static PersonDTO toPersonDTO(Person person) {
+        PersonDTO personDTO = new PersonDTO();
+        personDTO.setId(person.getId());
+        personDTO.setName(person.getName());
+        personDTO.setAge(person.getAge());
+        personDTO.setEmail(person.getEmail());
+        personDTO.setPhoneNumber(person.getPhoneNumber());
+        return personDTO;
+    }
+
+    public static Book toBook(BookDTO bookDTO) {
+        Book book = new Book();
+        book.setName(bookDTO.getName());
+        book.setYearOfProduction(bookDTO.getYearOfProduction());
+        book.setAuthor(bookDTO.getAuthor());
+        book.setAnnotation(bookDTO.getAnnotation());
+        book.setPersonId(bookDTO.getPersonId());
+        return book;
+    }
+
+    public static Person toPerson(PersonDTO personDTO) {
+        Person person = new Person();
+        person.setName(personDTO.getName());
+        person.setAge(personDTO.getAge());
+        person.setEmail(personDTO.getEmail());
+        person.setPhoneNumber(personDTO.getPhoneNumber());
+        return person;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Setter
+@Getter
+public class LibraryStatsDTO {
+    private long books;
+    private long booksOnLoan;
+    private long booksRemoved;
+    private long people;
+    private long activeReaders;
+    private long peopleRemoved;
+    private LocalDateTime reconciledAt;
+
+    public LibraryStatsDTO(long books, long booksOnLoan, long booksRemoved,
+                           long people, long activeReaders, long peopleRemoved, LocalDateTime reconciledAt) {
+        this.books = books;
+        this.booksOnLoan = booksOnLoan;
+        this.booksRemoved = booksRemoved;
+        this.people = people;
+        this.activeReaders = activeReaders;
+        this.peopleRemoved = peopleRemoved;
+        this.reconciledAt = reconciledAt;
+    }
+}
@@ -0,0 +1,22 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Setter
+@Getter
+public class LoanDurationDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private long returns;
+    private Double averageHours;
+
+    public LoanDurationDTO(LocalDate from, LocalDate to, long returns, Double averageHours) {
+        this.from = from;
+        this.to = to;
+        this.returns = returns;
+        this.averageHours = averageHours;
+    }
+}
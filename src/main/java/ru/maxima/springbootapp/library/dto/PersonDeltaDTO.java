@@ -0,0 +1,22 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A person row as seen by delta sync; removed rows come as tombstones with
+ * removed = true.
+ */
+@Setter
+@Getter
+public class PersonDeltaDTO {
+    private Long id;
+    private String name;
+    private Integer age;
+    private String email;
+    private String phoneNumber;
+    private Boolean removed;
+    private LocalDateTime changedAt;
+}
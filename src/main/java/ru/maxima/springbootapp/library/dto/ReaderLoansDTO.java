@@ -0,0 +1,20 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class ReaderLoansDTO {
+    private Long personId;
+    private String name;
+    private int active;
+    private long total;
+
+    public ReaderLoansDTO(Long personId, String name, int active, long total) {
+        this.personId = personId;
+        this.name = name;
+        this.active = active;
+        this.total = total;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.maxima.springbootapp.library.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Setter
+@Getter
+public class TitleLoansDTO {
+    private String name;
+    private String author;
+    private long loans;
+
+    public TitleLoansDTO(String name, String author, long loans) {
+        this.name = name;
+        this.author = author;
+        this.loans = loans;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.maxima.springbootapp.library.events;
+
+import lombok.Getter;
+import ru.maxima.springbootapp.library.models.Book;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction by every service method that
+ * changes book rows. Writes that went through entities also carry the books
+ * as they were saved; set-based updates only have the ids.
+ */
+@Getter
+public class BookChangedEvent {
+    private final ChangeType type;
+    private final List<Long> bookIds;
+    private final List<Book> books;
+
+    private BookChangedEvent(ChangeType type, List<Long> bookIds, List<Book> books) {
+        this.type = type;
+        this.bookIds = bookIds;
+        this.books = books;
+    }
+
+    public static BookChangedEvent ofIds(ChangeType type, List<Long> bookIds) {
+
+        return new BookChangedEvent(type, bookIds, List.of());
+    }
+
+    public static BookChangedEvent ofBooks(ChangeType type, List<Book> books) {
+
+        return new BookChangedEvent(type, books.stream().map(Book::getId).toList(), books);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.maxima.springbootapp.library.events;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts committed writes to books and people, giving list endpoints an ETag
+ * that changes whenever any row behind them does. The counters live in this
+ * instance only, like the second-level and principal caches; the startup
+ * epoch keeps a restarted instance from reusing old tags. Take the tag before
+ * loading the data it describes, so a concurrent commit can only make it
+ * older than the body, never newer.
+ */
+@Component
+public class CatalogueVersions {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong books = new AtomicLong();
+    private final AtomicLong people = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+
+        books.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+
+        people.incrementAndGet();
+    }
+
+    public String booksETag() {
+
+        return "\"books-" + epoch + "-" + books.get() + "\"";
+    }
+
+    public String peopleETag() {
+
+        return "\"people-" + epoch + "-" + people.get() + "\"";
+    }
+}
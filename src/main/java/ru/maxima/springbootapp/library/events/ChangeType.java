@@ -0,0 +1,10 @@
+package ru.maxima.springbootapp.library.events;
+
+public enum ChangeType {
+    CREATE,
+    UPDATE,
+    DELETE,
+    REVIVE,
+    ASSIGN,
+    UNLINK
+}
@@ -0,0 +1,55 @@
+package ru.maxima.springbootapp.library.events;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.repositories.OutboxRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Gives committed outbox rows their feed position. Outbox ids are handed out
+ * before commit and in blocks per instance, so they can't serve as offsets;
+ * positions are assigned here, by one instance at a time (advisory lock),
+ * to rows that are already visible. Also drops published rows past retention.
+ */
+@Component
+public class OutboxSequencer {
+
+    private static final long LOCK_KEY = 0x6f7574626f78L;
+
+    private final OutboxRepository outboxRepository;
+    private final int batchSize;
+    private final Duration retention;
+
+    @Autowired
+    public OutboxSequencer(OutboxRepository outboxRepository,
+                           @Value("${library.outbox.batch-size}") int batchSize,
+                           @Value("${library.outbox.retention}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.publish-interval}")
+    @Transactional
+    public void publish() {
+        if (!outboxRepository.tryLock(LOCK_KEY)) {
+            return;
+        }
+        int assigned;
+        do {
+            assigned = outboxRepository.assignPositions(batchSize);
+        } while (assigned == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.cleanup-interval}")
+    @Transactional
+    public void cleanup() {
+
+        outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention), batchSize * 10);
+    }
+}
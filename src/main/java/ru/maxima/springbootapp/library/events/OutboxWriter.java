@@ -0,0 +1,49 @@
+package ru.maxima.springbootapp.library.events;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.models.OutboxEvent;
+import ru.maxima.springbootapp.library.repositories.OutboxRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends one outbox row per changed id inside the writing transaction, so
+ * the change and its event commit or roll back together.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxRepository outboxRepository;
+
+    @Autowired
+    public OutboxWriter(OutboxRepository outboxRepository) {
+
+        this.outboxRepository = outboxRepository;
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookChanged(BookChangedEvent event) {
+
+        append(OutboxEvent.BOOK, event.getType(), event.getBookIds());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onPersonChanged(PersonChangedEvent event) {
+
+        append(OutboxEvent.PERSON, event.getType(), event.getPersonIds());
+    }
+
+    private void append(String aggregateType, ChangeType type, List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.saveAll(ids.stream()
+                .map(id -> new OutboxEvent(aggregateType, id, type, now))
+                .toList());
+    }
+}
@@ -0,0 +1,20 @@
+package ru.maxima.springbootapp.library.events;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction by every service method that
+ * changes person rows.
+ */
+@Getter
+public class PersonChangedEvent {
+    private final ChangeType type;
+    private final List<Long> personIds;
+
+    public PersonChangedEvent(ChangeType type, List<Long> personIds) {
+        this.type = type;
+        this.personIds = personIds;
+    }
+}
@@ -0,0 +1,52 @@
+package ru.maxima.springbootapp.library.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the entities Hibernate loads on the current request thread, from
+ * queries, lazy collections and the second-level cache alike. A page can run
+ * few statements and still hydrate thousands of rows; this is where it shows.
+ * Hooked in as an Integrator because the session factory is built after the
+ * metrics configuration that hands it over.
+ */
+@Component
+public class EntityLoadCounter implements PostLoadEventListener, Integrator {
+
+    private final ThreadLocal<int[]> counter = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+
+        counter.get()[0]++;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+        sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    public void reset() {
+
+        counter.get()[0] = 0;
+    }
+
+    public int count() {
+
+        return counter.get()[0];
+    }
+}
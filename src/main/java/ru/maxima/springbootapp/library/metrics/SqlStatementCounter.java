@@ -0,0 +1,46 @@
+package ru.maxima.springbootapp.library.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current request thread
+ * and logs a random sample of them, in place of hibernate.show_sql.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("ru.maxima.springbootapp.library.sql");
+
+    private final ThreadLocal<int[]> counter = ThreadLocal.withInitial(() -> new int[1]);
+    private final double sampleRate;
+
+    public SqlStatementCounter(@Value("${library.sql.sample-rate:0.01}") double sampleRate) {
+
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        counter.get()[0]++;
+        if (log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.debug(sql);
+        }
+        return sql;
+    }
+
+    public void reset() {
+
+        counter.get()[0] = 0;
+    }
+
+    public int count() {
+
+        return counter.get()[0];
+    }
+}
@@ -0,0 +1,54 @@
+package ru.maxima.springbootapp.library.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements every handler ran and how many entities it
+ * loaded, as the library.request.statements and library.request.entity-loads
+ * summaries tagged with the handler's URI pattern.
+ */
+public class SqlStatementsInterceptor implements HandlerInterceptor {
+
+    private final SqlStatementCounter sqlStatementCounter;
+    private final EntityLoadCounter entityLoadCounter;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementsInterceptor(SqlStatementCounter sqlStatementCounter, EntityLoadCounter entityLoadCounter,
+                                    MeterRegistry meterRegistry) {
+        this.sqlStatementCounter = sqlStatementCounter;
+        this.entityLoadCounter = entityLoadCounter;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        sqlStatementCounter.reset();
+        entityLoadCounter.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary("library.request.statements", "SQL statements executed per request", request, uri)
+                .record(sqlStatementCounter.count());
+        summary("library.request.entity-loads", "Entities loaded per request", request, uri)
+                .record(entityLoadCounter.count());
+    }
+
+    private DistributionSummary summary(String name, String description, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -5,6 +5,11 @@ import jakarta.validation.constraints.NotEmpty;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import ru.maxima.springbootapp.library.util.LiveRows;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -13,11 +18,16 @@ import java.util.Objects;
 @Getter
 @Setter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "book")
+@FilterDef(name = LiveRows.FILTER, defaultCondition = "removed = false")
+@Filter(name = LiveRows.FILTER)
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id_seq")
+    @SequenceGenerator(name = "book_id_seq", sequenceName = "book_id_seq", allocationSize = 50)
     private Long id;
     @Column
     @NotEmpty(message = "Title shouldn't be empty")
@@ -37,6 +47,9 @@ public class Book {
     @Column(name = "person_id")
     private Long personId;
 
+    @Version
+    private Long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
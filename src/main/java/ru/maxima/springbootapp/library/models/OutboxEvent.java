@@ -0,0 +1,44 @@
+package ru.maxima.springbootapp.library.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import ru.maxima.springbootapp.library.events.ChangeType;
+
+import java.time.LocalDateTime;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent {
+
+    public static final String BOOK = "book";
+    public static final String PERSON = "person";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_id_seq")
+    @SequenceGenerator(name = "outbox_event_id_seq", sequenceName = "outbox_event_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(insertable = false, updatable = false)
+    private Long position;
+
+    private String aggregateType;
+
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType eventType;
+
+    private LocalDateTime occurredAt;
+
+    public OutboxEvent(String aggregateType, Long aggregateId, ChangeType eventType, LocalDateTime occurredAt) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.occurredAt = occurredAt;
+    }
+}
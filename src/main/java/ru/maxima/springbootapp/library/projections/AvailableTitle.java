@@ -0,0 +1,21 @@
+package ru.maxima.springbootapp.library.projections;
+
+import lombok.Getter;
+
+/**
+ * A title from the in-memory availability index; id is one of its free copies.
+ */
+@Getter
+public class AvailableTitle implements BookTitle {
+    private final Long id;
+    private final String name;
+    private final String author;
+    private final Long copies;
+
+    public AvailableTitle(Long id, String name, String author, Long copies) {
+        this.id = id;
+        this.name = name;
+        this.author = author;
+        this.copies = copies;
+    }
+}
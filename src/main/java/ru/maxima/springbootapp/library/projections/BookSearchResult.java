@@ -0,0 +1,19 @@
+package ru.maxima.springbootapp.library.projections;
+
+public interface BookSearchResult {
+    Long getId();
+
+    String getName();
+
+    Integer getYearOfProduction();
+
+    String getAuthor();
+
+    String getAnnotation();
+
+    Long getPersonId();
+
+    Boolean getRemoved();
+
+    Float getRank();
+}
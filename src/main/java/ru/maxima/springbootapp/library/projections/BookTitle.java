@@ -0,0 +1,11 @@
+package ru.maxima.springbootapp.library.projections;
+
+public interface BookTitle {
+    Long getId();
+
+    String getName();
+
+    String getAuthor();
+
+    Long getCopies();
+}
@@ -0,0 +1,16 @@
+package ru.maxima.springbootapp.library.projections;
+
+import lombok.Getter;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+@Getter
+public class BookWithOwner {
+    private final Book book;
+    private final Person owner;
+
+    public BookWithOwner(Book book, Person owner) {
+        this.book = book;
+        this.owner = owner;
+    }
+}
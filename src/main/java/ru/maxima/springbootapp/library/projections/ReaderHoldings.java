@@ -0,0 +1,7 @@
+package ru.maxima.springbootapp.library.projections;
+
+public interface ReaderHoldings {
+    Long getPersonId();
+
+    int getBooks();
+}
@@ -0,0 +1,7 @@
+package ru.maxima.springbootapp.library.projections;
+
+public interface RowCounts {
+    long getLive();
+
+    long getRemoved();
+}
@@ -0,0 +1,39 @@
+package ru.maxima.springbootapp.library.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.maxima.springbootapp.library.audit.AuditRecord;
+
+import java.util.List;
+
+@Repository
+public class AuditLogRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AuditLogRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void saveAll(List<AuditRecord> records) {
+        SqlParameterSource[] batch = records.stream()
+                .map(record -> new MapSqlParameterSource()
+                        .addValue("entityType", record.entityType())
+                        .addValue("entityId", record.entityId())
+                        .addValue("action", record.action().name())
+                        .addValue("field", record.field())
+                        .addValue("oldValue", record.oldValue())
+                        .addValue("newValue", record.newValue())
+                        .addValue("changedBy", record.changedBy())
+                        .addValue("changedAt", record.changedAt()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("insert into audit_log " +
+                "(entity_type, entity_id, action, field, old_value, new_value, changed_by, changed_at) " +
+                "values (:entityType, :entityId, :action, :field, :oldValue, :newValue, :changedBy, :changedAt)", batch);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.maxima.springbootapp.library.repositories;
+
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.maxima.springbootapp.library.dto.BookDTO;
+import ru.maxima.springbootapp.library.dto.PersonDTO;
+
+import java.util.Optional;
+
+/**
+ * Read-only R2DBC access to the book and person tables for /api/v2/books.
+ * Rows go straight into the DTOs, there are no entities on this path.
+ */
+@Repository
+public class BooksReactiveRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public BooksReactiveRepository(DatabaseClient databaseClient) {
+
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Boolean> isEmpty() {
+        return databaseClient.sql("select not exists (select 1 from book where removed = false) as empty")
+                .map(row -> row.get("empty", Boolean.class))
+                .one();
+    }
+
+    /**
+     * Live books only, like the JPA lists. Rows are fetched FETCH_SIZE at a
+     * time through a cursor and only as fast as the subscriber requests them.
+     */
+    public Flux<BookDTO> findAll() {
+        return databaseClient.sql("select id, name, year_of_production, author, annotation, person_id "
+                        + "from book where removed = false order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(BooksReactiveRepository::toBookDTO)
+                .all();
+    }
+
+    public Mono<BookDTO> findById(Long id) {
+        return databaseClient.sql("select id, name, year_of_production, author, annotation, person_id "
+                        + "from book where id = :id")
+                .bind("id", id)
+                .map(BooksReactiveRepository::toBookDTO)
+                .one();
+    }
+
+    /**
+     * Empty when the book doesn't exist, an empty Optional when it is free.
+     */
+    public Mono<Optional<PersonDTO>> findOwner(Long bookId) {
+        return databaseClient.sql("select p.id, p.name, p.age, p.email, p.phone_number "
+                        + "from book b left join person p on p.id = b.person_id where b.id = :id")
+                .bind("id", bookId)
+                .map(row -> Optional.ofNullable(row.get("id", Long.class) == null ? null : toPersonDTO(row)))
+                .one();
+    }
+
+    private static BookDTO toBookDTO(Readable row) {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setId(row.get("id", Long.class));
+        bookDTO.setName(row.get("name", String.class));
+        bookDTO.setYearOfProduction(row.get("year_of_production", Integer.class));
+        bookDTO.setAuthor(row.get("author", String.class));
+        bookDTO.setAnnotation(row.get("annotation", String.class));
+        bookDTO.setPersonId(row.get("person_id", Long.class));
+        return bookDTO;
+    }
+
+    private static PersonDTO toPersonDTO(Readable row) {
+        PersonDTO personDTO = new PersonDTO();
+        personDTO.setId(row.get("id", Long.class));
+        personDTO.setName(row.get("name", String.class));
+        personDTO.setAge(row.get("age", Integer.class));
+        personDTO.setEmail(row.get("email", String.class));
+        personDTO.setPhoneNumber(row.get("phone_number", String.class));
+        return personDTO;
+    }
+}
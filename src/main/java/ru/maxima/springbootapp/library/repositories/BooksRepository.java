@@ -1,16 +1,128 @@
 package ru.maxima.springbootapp.library.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.projections.BookAvailability;
+import ru.maxima.springbootapp.library.projections.BookSearchResult;
+import ru.maxima.springbootapp.library.projections.BookTitle;
+import ru.maxima.springbootapp.library.projections.BookWithOwner;
+import ru.maxima.springbootapp.library.projections.ReaderHoldings;
+import ru.maxima.springbootapp.library.projections.RowCounts;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
+@Transactional(readOnly = true)
 public interface BooksRepository extends JpaRepository<Book, Long> {
+
+    /**
+     * Latest audit timestamp of a row, 1970-01-01 when it has none (rows seeded
+     * by plain SQL), so such rows still come out of a full sync. Must stay
+     * identical to the expression of book_changed_at_idx (V16).
+     */
+    String CHANGED_AT = "coalesce(greatest(b.createdAt, b.updatedAt, b.removedAt), cast('1970-01-01 00:00:00' as LocalDateTime))";
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Book> findByPersonId(Long id);
 
     List<Book> findAllByRemovedAndPersonId(Boolean removed, Long personId);
 
+    @Query("select new ru.maxima.springbootapp.library.projections.BookWithOwner(b, p) " +
+            "from Book b left join Person p on p.id = b.personId where b.id = :id")
+    Optional<BookWithOwner> findWithOwnerById(@Param("id") Long id);
+
+    Slice<Book> findAllBy(Pageable pageable);
+
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    Optional<Book> findFirstByOrderByIdAsc();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    Stream<Book> streamAllByOrderByIdAsc();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select b.id as id, b.name as name, b.author as author, b.personId as personId " +
+            "from Book b where b.removed = false")
+    Stream<BookAvailability> streamAvailability();
+
+    @Query(value = "select count(*) filter (where not removed) as \"live\", " +
+            "count(*) filter (where removed) as \"removed\" from book", nativeQuery = true)
+    RowCounts countRows();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "select person_id as \"personId\", count(*) as \"books\" from book " +
+            "where person_id is not null group by person_id", nativeQuery = true)
+    Stream<ReaderHoldings> streamHoldings();
+
+    @Query("select min(b.id) as id, b.name as name, b.author as author, count(b) as copies " +
+            "from Book b group by b.name, b.author order by b.name, b.author")
+    Slice<BookTitle> findTitles(Pageable pageable);
+
+    @Query("select min(b.id) as id, b.name as name, b.author as author, count(b) as copies " +
+            "from Book b where b.removed = false and b.personId is null " +
+            "group by b.name, b.author order by b.name, b.author")
+    Slice<BookTitle> findFreeTitles(Pageable pageable);
+
+    @Query(value = "select b.id as \"id\", b.name as \"name\", b.year_of_production as \"yearOfProduction\", " +
+            "b.author as \"author\", b.annotation as \"annotation\", b.person_id as \"personId\", " +
+            "b.removed as \"removed\", ts_rank(b.search_vector, q) as \"rank\" " +
+            "from book b, to_tsquery('simple', :query) q " +
+            "where b.search_vector @@ q and b.removed = false and (:freeOnly = false or b.person_id is null) " +
+            "order by \"rank\" desc, b.id", nativeQuery = true)
+    Slice<BookSearchResult> search(@Param("query") String query, @Param("freeOnly") boolean freeOnly,
+                                   Pageable pageable);
+
+    @Transactional
+    @Query(value = "update book set person_id = :personId, version = version + 1, updated_at = :updatedAt, updated_person = :updatedPerson " +
+            "where id in (:ids) and person_id is null and removed = false returning id", nativeQuery = true)
+    List<Long> assignFree(@Param("ids") Collection<Long> ids, @Param("personId") Long personId,
+                          @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedPerson") String updatedPerson);
+
+    @Transactional
+    @Query(value = "update book set person_id = null, version = version + 1, updated_at = :updatedAt, updated_person = :updatedPerson " +
+            "where id in (:ids) and person_id = :personId returning id", nativeQuery = true)
+    List<Long> unlinkFromPerson(@Param("ids") Collection<Long> ids, @Param("personId") Long personId,
+                                @Param("updatedAt") LocalDateTime updatedAt, @Param("updatedPerson") String updatedPerson);
+
+    @Query("select b from Book b where " + CHANGED_AT + " <= :horizon " +
+            "and " + CHANGED_AT + " >= :since " +
+            "and (" + CHANGED_AT + " > :since or b.id > :afterId) " +
+            "order by " + CHANGED_AT + ", b.id")
+    Slice<Book> findChangedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                 @Param("horizon") LocalDateTime horizon, Pageable pageable);
+
+    /**
+     * Moves up to :limit books removed before :before into book_archive and
+     * returns their ids. Books still on loan stay until they are returned,
+     * so active_loan and the reader stats never point at an archived copy.
+     */
+    @Transactional
+    @Query(value = "with moved as (" +
+            "  delete from book where id in (" +
+            "    select id from book where removed = true and removed_at < :before and person_id is null " +
+            "    order by id limit :limit) " +
+            "  returning id, name, year_of_production, author, annotation, created_at, updated_at, removed_at, " +
+            "    created_person, updated_person, removed_person, removed, person_id, version), " +
+            "archived as (" +
+            "  insert into book_archive (id, name, year_of_production, author, annotation, created_at, updated_at, " +
+            "    removed_at, created_person, updated_person, removed_person, removed, person_id, version) " +
+            "  select * from moved) " +
+            "select id from moved", nativeQuery = true)
+    List<Long> archiveRemoved(@Param("before") LocalDateTime before, @Param("limit") int limit);
 
 }
@@ -0,0 +1,129 @@
+package ru.maxima.springbootapp.library.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.maxima.springbootapp.library.dto.LoanDurationDTO;
+import ru.maxima.springbootapp.library.dto.ReaderLoansDTO;
+import ru.maxima.springbootapp.library.dto.TitleLoansDTO;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loan history and its rollups. Writes join the caller's transaction and
+ * touch only the history partition of the current month plus a few rollup
+ * rows; reads never go to the history at all.
+ */
+@Repository
+public class LoanRepository {
+
+    private static final int DURATION_SHARDS = 16;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public LoanRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void borrowed(Collection<Long> bookIds, Long personId, LocalDateTime at) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", bookIds)
+                .addValue("personId", personId)
+                .addValue("at", at)
+                .addValue("count", bookIds.size());
+        jdbcTemplate.update("with history as (" +
+                "  insert into loan (book_id, person_id, event, occurred_at) " +
+                "  select b.id, :personId, 'OUT', :at from book b where b.id in (:ids)), " +
+                "active as (" +
+                "  insert into active_loan (book_id, person_id, started_at) " +
+                "  select b.id, :personId, :at from book b where b.id in (:ids) " +
+                "  on conflict (book_id) do update set person_id = excluded.person_id, started_at = excluded.started_at), " +
+                "titles as (" +
+                "  insert into loan_title_monthly (month, name, author, loans) " +
+                "  select date_trunc('month', cast(:at as timestamp)), coalesce(b.name, ''), coalesce(b.author, ''), count(*) " +
+                "  from book b where b.id in (:ids) group by 2, 3 " +
+                "  on conflict (month, name, author) do update set loans = loan_title_monthly.loans + excluded.loans) " +
+                "insert into reader_loan_stats (person_id, active, total) values (:personId, :count, :count) " +
+                "on conflict (person_id) do update set active = reader_loan_stats.active + excluded.active, " +
+                "total = reader_loan_stats.total + excluded.total", params);
+    }
+
+    /**
+     * Closes the open loans of the given books; books with no recorded loan
+     * (lent before the history existed) are skipped.
+     */
+    public void returned(Collection<Long> bookIds, LocalDateTime at) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", bookIds)
+                .addValue("at", at)
+                .addValue("shards", DURATION_SHARDS);
+        jdbcTemplate.update("with ended as (" +
+                "  delete from active_loan where book_id in (:ids) returning book_id, person_id, started_at), " +
+                "history as (" +
+                "  insert into loan (book_id, person_id, event, occurred_at) " +
+                "  select book_id, person_id, 'IN', :at from ended), " +
+                "durations as (" +
+                "  insert into loan_duration_monthly (month, shard, returns, total_seconds) " +
+                "  select date_trunc('month', cast(:at as timestamp)), cast(book_id % :shards as int), count(*), " +
+                "  sum(extract(epoch from cast(:at as timestamp) - started_at)) from ended group by 2 " +
+                "  on conflict (month, shard) do update set returns = loan_duration_monthly.returns + excluded.returns, " +
+                "  total_seconds = loan_duration_monthly.total_seconds + excluded.total_seconds) " +
+                "update reader_loan_stats r set active = r.active - e.returned " +
+                "from (select person_id, count(*) as returned from ended group by person_id) e " +
+                "where r.person_id = e.person_id", params);
+    }
+
+    public void createPartition(LocalDate month) {
+
+        jdbcTemplate.execute("select create_loan_partition(:month)",
+                new MapSqlParameterSource("month", month), PreparedStatement::execute);
+    }
+
+    public List<TitleLoansDTO> findMostBorrowed(LocalDate from, LocalDate to, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("limit", limit);
+        return jdbcTemplate.query("select name, author, sum(loans) as loans from loan_title_monthly " +
+                        "where month >= :from and month < :to group by name, author " +
+                        "order by loans desc, name, author limit :limit", params,
+                (rs, rowNum) -> new TitleLoansDTO(rs.getString("name"), rs.getString("author"),
+                        rs.getLong("loans")));
+    }
+
+    public List<ReaderLoansDTO> findActiveByReader(int limit) {
+        return jdbcTemplate.query("select r.person_id, p.name, r.active, r.total from reader_loan_stats r " +
+                        "left join person p on p.id = r.person_id where r.active > 0 " +
+                        "order by r.active desc, r.person_id limit :limit",
+                new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> new ReaderLoansDTO(rs.getLong("person_id"), rs.getString("name"),
+                        rs.getInt("active"), rs.getLong("total")));
+    }
+
+    public LoanDurationDTO findAverageDuration(LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+        return jdbcTemplate.queryForObject("select coalesce(sum(returns), 0) as returns, " +
+                        "coalesce(sum(total_seconds), 0) as total_seconds from loan_duration_monthly " +
+                        "where month >= :from and month < :to", params,
+                (rs, rowNum) -> {
+                    long returns = rs.getLong("returns");
+                    double totalSeconds = rs.getDouble("total_seconds");
+                    return new LoanDurationDTO(from, to, returns, returns == 0 ? null : totalSeconds / returns / 3600);
+                });
+    }
+}
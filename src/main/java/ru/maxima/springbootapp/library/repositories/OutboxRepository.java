@@ -0,0 +1,49 @@
+package ru.maxima.springbootapp.library.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.maxima.springbootapp.library.models.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+
+    @Query(value = "select pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLock(@Param("key") long key);
+
+    /**
+     * Numbers up to :limit committed, not yet numbered events in id order
+     * from outbox_event_position_seq. Callers hold the sequencer lock.
+     */
+    @Modifying
+    @Query(value = "with pending as (" +
+            "  select id from outbox_event where position is null order by id limit :limit), " +
+            "numbered as (select id, nextval('outbox_event_position_seq') as position from pending) " +
+            "update outbox_event e set position = numbered.position " +
+            "from numbered where e.id = numbered.id", nativeQuery = true)
+    int assignPositions(@Param("limit") int limit);
+
+    /**
+     * Deletes up to :limit published events older than :before and moves
+     * outbox_retention.pruned_through up to the highest deleted position.
+     */
+    @Modifying
+    @Query(value = "with deleted as (" +
+            "  delete from outbox_event where id in (" +
+            "    select id from outbox_event where position is not null and occurred_at < :before limit :limit) " +
+            "  returning position) " +
+            "update outbox_retention set pruned_through = greatest(pruned_through, " +
+            "  (select coalesce(max(position), 0) from deleted))", nativeQuery = true)
+    void deletePublishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    @Query(value = "select pruned_through from outbox_retention", nativeQuery = true)
+    long findPrunedThrough();
+}
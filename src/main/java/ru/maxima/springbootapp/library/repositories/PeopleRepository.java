@@ -1,14 +1,71 @@
 package ru.maxima.springbootapp.library.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.projections.RowCounts;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
+@Transactional(readOnly = true)
 public interface PeopleRepository extends JpaRepository<Person, Long> {
 
+    /**
+     * Latest audit timestamp of a row, 1970-01-01 when it has none (rows seeded
+     * by plain SQL), so such rows still come out of a full sync. Must stay
+     * identical to the expression of person_changed_at_idx (V16).
+     */
+    String CHANGED_AT = "coalesce(greatest(p.createdAt, p.updatedAt, p.removedAt), cast('1970-01-01 00:00:00' as LocalDateTime))";
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Person> findByName(String username);
 
+    Slice<Person> findAllBy(Pageable pageable);
+
+    @Query("select p from Person p left join fetch p.booksInUse where p.id = :id")
+    Optional<Person> findWithBooksInUseById(@Param("id") Long id);
+
+    Slice<Person> findByNameStartingWithOrderByName(String prefix, Pageable pageable);
+
+    @Query(value = "select count(*) filter (where not removed) as \"live\", " +
+            "count(*) filter (where removed) as \"removed\" from person", nativeQuery = true)
+    RowCounts countRows();
+
+    @Query("select p from Person p where " + CHANGED_AT + " <= :horizon " +
+            "and " + CHANGED_AT + " >= :since " +
+            "and (" + CHANGED_AT + " > :since or p.id > :afterId) " +
+            "order by " + CHANGED_AT + ", p.id")
+    Slice<Person> findChangedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                   @Param("horizon") LocalDateTime horizon, Pageable pageable);
+
+    /**
+     * Moves up to :limit people removed before :before into person_archive and
+     * returns their ids. People some book still points at stay where they are.
+     */
+    @Transactional
+    @Query(value = "with moved as (" +
+            "  delete from person where id in (" +
+            "    select p.id from person p where p.removed = true and p.removed_at < :before " +
+            "    and not exists (select 1 from book b where b.person_id = p.id) order by p.id limit :limit) " +
+            "  returning id, name, age, email, phone_number, password, role, created_at, updated_at, removed_at, " +
+            "    created_person, updated_person, removed_person, removed, version), " +
+            "archived as (" +
+            "  insert into person_archive (id, name, age, email, phone_number, password, role, created_at, " +
+            "    updated_at, removed_at, created_person, updated_person, removed_person, removed, version) " +
+            "  select * from moved) " +
+            "select id from moved", nativeQuery = true)
+    List<Long> archiveRemoved(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
 }
@@ -0,0 +1,28 @@
+package ru.maxima.springbootapp.library.security;
+
+import lombok.Getter;
+import ru.maxima.springbootapp.library.models.Person;
+
+@Getter
+public class CachedPrincipal {
+    private final Long id;
+    private final String name;
+    private final String password;
+    private final String role;
+
+    public CachedPrincipal(Person person) {
+        this.id = person.getId();
+        this.name = person.getName();
+        this.password = person.getPassword();
+        this.role = person.getRole();
+    }
+
+    public Person toPerson() {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setPassword(password);
+        person.setRole(role);
+        return person;
+    }
+}
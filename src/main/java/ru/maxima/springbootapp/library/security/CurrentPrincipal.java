@@ -0,0 +1,43 @@
+package ru.maxima.springbootapp.library.security;
+
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import ru.maxima.springbootapp.library.models.Person;
+
+import java.util.Optional;
+
+/**
+ * Who the current request runs as, taken once from the PersonDetails that
+ * was loaded at login. The id comes with it, so services never look the
+ * name up again. Anonymous and non-form principals carry only a name.
+ */
+@Getter
+public class CurrentPrincipal {
+    private final Long id;
+    private final String name;
+    private final String role;
+
+    public CurrentPrincipal(Long id, String name, String role) {
+        this.id = id;
+        this.name = name;
+        this.role = role;
+    }
+
+    public Optional<Long> findId() {
+
+        return Optional.ofNullable(id);
+    }
+
+    public static CurrentPrincipal fromSecurityContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return new CurrentPrincipal(null, null, null);
+        }
+        if (authentication.getPrincipal() instanceof PersonDetails personDetails) {
+            Person person = personDetails.getPerson();
+            return new CurrentPrincipal(person.getId(), person.getName(), person.getRole());
+        }
+        return new CurrentPrincipal(null, authentication.getName(), null);
+    }
+}
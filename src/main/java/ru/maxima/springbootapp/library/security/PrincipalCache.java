@@ -0,0 +1,69 @@
+package ru.maxima.springbootapp.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Username -> id/role lookup behind the login form, so repeated logins cost
+ * no findByName round trips until the entry expires or the person is
+ * changed. Requests after login read the id from CurrentPrincipal.
+ */
+@Component
+public class PrincipalCache {
+
+    private final PeopleRepository peopleRepository;
+    private final Cache<String, CachedPrincipal> cache;
+
+    @Autowired
+    public PrincipalCache(PeopleRepository peopleRepository,
+                          @Value("${library.principal-cache.size:10000}") long size,
+                          @Value("${library.principal-cache.ttl:10m}") Duration ttl) {
+        this.peopleRepository = peopleRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<CachedPrincipal> find(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(username, name -> peopleRepository.findByName(name)
+                .map(CachedPrincipal::new)
+                .orElse(null)));
+    }
+
+    public Optional<Long> findId(String username) {
+
+        return find(username).map(CachedPrincipal::getId);
+    }
+
+    /**
+     * Drops the entry now and once more after the surrounding transaction
+     * commits, so a concurrent login cannot re-cache the pre-commit row.
+     */
+    public void evict(String username) {
+        if (username == null) {
+            return;
+        }
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.maxima.springbootapp.library.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Moves rows removed longer than library.archive.after ago into book_archive
+ * and person_archive, one batch per transaction, so the hot tables and their
+ * indexes only carry live and recently removed rows.
+ */
+@Service
+public class ArchivalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivalService.class);
+
+    private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache cache;
+    private final Duration archiveAfter;
+    private final int batchSize;
+
+    @Autowired
+    public ArchivalService(BooksRepository booksRepository, PeopleRepository peopleRepository,
+                           PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+                           @Value("${library.archive.after}") Duration archiveAfter,
+                           @Value("${library.archive.batch-size}") int batchSize) {
+        this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.archiveAfter = archiveAfter;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${library.archive.cron}")
+    public void archiveRemoved() {
+        LocalDateTime before = LocalDateTime.now().minus(archiveAfter);
+        long books = archive(Book.class, before, booksRepository::archiveRemoved);
+        long people = archive(Person.class, before, peopleRepository::archiveRemoved);
+        if (books > 0 || people > 0) {
+            log.info("Archived {} books and {} people removed before {}", books, people, before);
+        }
+    }
+
+    private long archive(Class<?> entity, LocalDateTime before,
+                         BiFunction<LocalDateTime, Integer, List<Long>> batch) {
+        long total = 0;
+        List<Long> moved;
+        do {
+            moved = transactionTemplate.execute(status -> batch.apply(before, batchSize));
+            moved.forEach(id -> cache.evict(entity, id));
+            total += moved.size();
+        } while (moved.size() == batchSize);
+        if (total > 0) {
+            cache.evictDefaultQueryRegion();
+        }
+        return total;
+    }
+}
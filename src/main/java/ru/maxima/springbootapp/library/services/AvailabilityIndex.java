@@ -0,0 +1,207 @@
+package ru.maxima.springbootapp.library.services;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.maxima.springbootapp.library.events.BookChangedEvent;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.projections.AvailableTitle;
+import ru.maxima.springbootapp.library.projections.BookAvailability;
+import ru.maxima.springbootapp.library.projections.BookTitle;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Free copies per (name, author), kept in memory so "what can I borrow" on the
+ * reader page doesn't scan the book table. Warmed from the database once the
+ * application is up, updated from committed BookChangedEvents (a copy moves
+ * in or out of its title's set in O(1), the title itself is found in a sorted
+ * map) and rebuilt from the database every library.availability.reconcile-interval
+ * to repair anything missed, e.g. listeners of concurrent commits running out
+ * of order. It only advises: borrowing still goes through the conditional
+ * update in BooksService.
+ */
+@Component
+public class AvailabilityIndex {
+
+    private static final Comparator<String> NULLS_FIRST = Comparator.nullsFirst(Comparator.naturalOrder());
+    private static final Comparator<Title> TITLE_ORDER = Comparator.comparing(Title::name, NULLS_FIRST)
+            .thenComparing(Title::author, NULLS_FIRST);
+
+    private final BooksRepository booksRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private State state = new State();
+    private List<BookChangedEvent> replay;
+
+    @Autowired
+    public AvailabilityIndex(BooksRepository booksRepository, PlatformTransactionManager transactionManager) {
+        this.booksRepository = booksRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Slice<BookTitle> findFreeTitles(int page, int size) {
+        List<BookTitle> titles = new ArrayList<>(size);
+        boolean hasNext;
+        lock.readLock().lock();
+        try {
+            Iterator<Map.Entry<Title, LongOpenHashSet>> entries = state.free.entrySet().iterator();
+            for (long skip = (long) page * size; skip > 0 && entries.hasNext(); skip--) {
+                entries.next();
+            }
+            while (titles.size() < size && entries.hasNext()) {
+                Map.Entry<Title, LongOpenHashSet> entry = entries.next();
+                titles.add(new AvailableTitle(entry.getValue().iterator().nextLong(),
+                        entry.getKey().name(), entry.getKey().author(), (long) entry.getValue().size()));
+            }
+            hasNext = entries.hasNext();
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new SliceImpl<>(titles, PageRequest.of(page, size), hasNext);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            state.apply(event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+
+        reconcile();
+    }
+
+    /**
+     * Builds a fresh index from the database outside the lock, then swaps it
+     * in, replaying the events that committed while it was being read.
+     */
+    @Scheduled(fixedDelayString = "${library.availability.reconcile-interval}",
+            initialDelayString = "${library.availability.reconcile-interval}")
+    public synchronized void reconcile() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        State rebuilt = new State();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<BookAvailability> books = booksRepository.streamAvailability()) {
+                    books.forEach(book -> rebuilt.put(book.getId(), new Title(book.getName(), book.getAuthor()),
+                            book.getPersonId() == null));
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            replay.forEach(rebuilt::apply);
+            state = rebuilt;
+            replay = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Title(String name, String author) {
+    }
+
+    private static class State {
+        private final Long2ObjectOpenHashMap<Title> titles = new Long2ObjectOpenHashMap<>();
+        private final TreeMap<Title, LongOpenHashSet> free = new TreeMap<>(TITLE_ORDER);
+
+        void apply(BookChangedEvent event) {
+            if (!event.getBooks().isEmpty()) {
+                for (Book book : event.getBooks()) {
+                    remove(book.getId());
+                    if (Boolean.FALSE.equals(book.getRemoved())) {
+                        put(book.getId(), new Title(book.getName(), book.getAuthor()), book.getPersonId() == null);
+                    }
+                }
+                return;
+            }
+            for (Long id : event.getBookIds()) {
+                switch (event.getType()) {
+                    case ASSIGN -> markBusy(id);
+                    case UNLINK -> markFree(id);
+                    case DELETE -> remove(id);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        void put(long id, Title title, boolean isFree) {
+            titles.put(id, title);
+            if (isFree) {
+                free.computeIfAbsent(title, key -> new LongOpenHashSet()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            Title title = titles.remove(id);
+            if (title != null) {
+                removeFree(title, id);
+            }
+        }
+
+        void markBusy(long id) {
+            Title title = titles.get(id);
+            if (title != null) {
+                removeFree(title, id);
+            }
+        }
+
+        void markFree(long id) {
+            Title title = titles.get(id);
+            if (title != null) {
+                free.computeIfAbsent(title, key -> new LongOpenHashSet()).add(id);
+            }
+        }
+
+        private void removeFree(Title title, long id) {
+            LongOpenHashSet copies = free.get(title);
+            if (copies != null && copies.remove(id) && copies.isEmpty()) {
+                free.remove(title);
+            }
+        }
+    }
+}
@@ -1,28 +1,46 @@
 package ru.maxima.springbootapp.library.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.events.BookChangedEvent;
+import ru.maxima.springbootapp.library.events.ChangeType;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.repositories.BooksRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @Transactional(readOnly = true)
 public class BooksRestService {
 
     private final BooksRepository booksRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryStats libraryStats;
     @Autowired
-    public BooksRestService(BooksRepository booksRepository) {
-
+    public BooksRestService(BooksRepository booksRepository, ApplicationEventPublisher eventPublisher,
+                            LibraryStats libraryStats) {
         this.booksRepository = booksRepository;
+        this.eventPublisher = eventPublisher;
+        this.libraryStats = libraryStats;
     }
 
     @Transactional
     public void save(Book book) {
         enrichForCreate(book);
         booksRepository.save(book);
+        libraryStats.booksCreated(List.of(book));
+        eventPublisher.publishEvent(BookChangedEvent.ofBooks(ChangeType.CREATE, List.of(book)));
+    }
+
+    @Transactional
+    public void saveAll(List<Book> books) {
+        books.forEach(this::enrichForCreate);
+        booksRepository.saveAll(books);
+        libraryStats.booksCreated(books);
+        eventPublisher.publishEvent(BookChangedEvent.ofBooks(ChangeType.CREATE, books));
     }
 
     public void enrichForCreate(Book book) {
@@ -1,33 +1,74 @@
 package ru.maxima.springbootapp.library.services;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.maxima.springbootapp.library.audit.AuditRecord;
+import ru.maxima.springbootapp.library.audit.AuditTrail;
+import ru.maxima.springbootapp.library.events.BookChangedEvent;
+import ru.maxima.springbootapp.library.events.ChangeType;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.projections.BookSearchResult;
+import ru.maxima.springbootapp.library.projections.BookTitle;
+import ru.maxima.springbootapp.library.projections.BookWithOwner;
 import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.LoanRepository;
 import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+import ru.maxima.springbootapp.library.security.CurrentPrincipal;
 import ru.maxima.springbootapp.library.util.BookNotFoundException;
 import ru.maxima.springbootapp.library.util.PersonNotFoundException;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 public class BooksService {
+    private static final int TITLES_PAGE_SIZE = 50;
+    private static final int IN_LIST_CHUNK_SIZE = 1000;
+
     private final BooksRepository booksRepository;
     private final PeopleRepository peopleRepository;
+    private final EntityManager entityManager;
+    private final CurrentPrincipal currentPrincipal;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoanRepository loanRepository;
+    private final LibraryStats libraryStats;
+    private final AuditTrail auditTrail;
 
     @Autowired
-    public BooksService(BooksRepository booksRepository, PeopleRepository peopleRepository) {
+    public BooksService(BooksRepository booksRepository, PeopleRepository peopleRepository,
+                        EntityManager entityManager, CurrentPrincipal currentPrincipal,
+                        ApplicationEventPublisher eventPublisher, LoanRepository loanRepository,
+                        LibraryStats libraryStats, AuditTrail auditTrail) {
         this.booksRepository = booksRepository;
         this.peopleRepository = peopleRepository;
+        this.entityManager = entityManager;
+        this.currentPrincipal = currentPrincipal;
+        this.eventPublisher = eventPublisher;
+        this.loanRepository = loanRepository;
+        this.libraryStats = libraryStats;
+        this.auditTrail = auditTrail;
     }
 
     public List<Book> findAll() {
@@ -35,14 +76,65 @@ public class BooksService {
         return booksRepository.findAll();
     }
 
-    public List<Book> findUnique() {
-        HashSet<Book> set = new HashSet<>(booksRepository.findAll());
-        return new ArrayList<>(set);
+    public Slice<Book> findAll(Pageable pageable) {
+
+        return booksRepository.findAllBy(pageable);
+    }
+
+    public List<Book> findPage(Long after, int limit) {
+        long lastSeenId = after != null ? after : 0L;
+        return booksRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId, PageRequest.of(0, limit));
+    }
+
+    public boolean isEmpty() {
+
+        return booksRepository.findFirstByOrderByIdAsc().isEmpty();
+    }
+
+    /**
+     * Walks the whole catalogue row by row. Every book is detached right after
+     * the action, so the persistence context never grows with the table size.
+     */
+    public void forEach(Consumer<Book> action) {
+        try (Stream<Book> books = booksRepository.streamAllByOrderByIdAsc()) {
+            books.forEach(book -> {
+                action.accept(book);
+                entityManager.detach(book);
+            });
+        }
+    }
+
+    public Slice<BookTitle> findUnique(int page) {
+
+        return booksRepository.findTitles(PageRequest.of(page, TITLES_PAGE_SIZE));
+    }
+
+    public Slice<BookTitle> findUniqueFree(int page) {
+
+        return booksRepository.findFreeTitles(PageRequest.of(page, TITLES_PAGE_SIZE));
+    }
+
+    /**
+     * Ranked full-text search over title, author and annotation of live books.
+     * Every word of the query is matched as a prefix, so "harr sil" finds
+     * "The Silence of the Lambs" by Thomas Harris.
+     */
+    public Slice<BookSearchResult> search(String query, boolean freeOnly, int page, int size) {
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return new SliceImpl<>(List.of());
+        }
+        return booksRepository.search(tsQuery, freeOnly, PageRequest.of(page, size));
     }
 
-    public List<Book> findUniqueFree() {
-        HashSet<Book> set = new HashSet<>(booksRepository.findAllByRemovedAndPersonId(false, null));
-        return new ArrayList<>(set);
+    private String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        return Arrays.stream(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
     }
 
     public Book findOne(Long id) {
@@ -51,69 +143,227 @@ public class BooksService {
     }
 
 
-    public List<Book> findBooksByPrincipal(String username) {
-        Optional<Person> foundPerson = peopleRepository.findByName(username);
-        return foundPerson.map(person -> booksRepository.findByPersonId(person.getId())).orElse(null);
+    public List<Book> findBooksByPrincipal() {
+
+        return currentPrincipal.findId().map(booksRepository::findByPersonId).orElse(null);
+    }
+
+    /**
+     * Book and owner in one query. When the join finds no owner for a set
+     * person_id (a removed owner hidden by the live-rows filter, or a dangling
+     * id) the owner is looked up by id, which throws PersonNotFoundException
+     * for the latter instead of passing the book off as free.
+     */
+    public BookWithOwner findOneWithOwner(Long bookId) {
+        BookWithOwner foundBook = booksRepository.findWithOwnerById(bookId).orElseThrow(BookNotFoundException::new);
+        Long personId = foundBook.getBook().getPersonId();
+        if (personId == null || foundBook.getOwner() != null) {
+            return foundBook;
+        }
+        Person owner = peopleRepository.findById(personId).orElseThrow(PersonNotFoundException::new);
+        return new BookWithOwner(foundBook.getBook(), owner);
     }
 
-    @Transactional
     public Person findOwner(Long bookId) {
-        Long personId = findOne(bookId).getPersonId();
-        if (personId != null) {
-            Optional<Person> foundOwner = peopleRepository.findById(personId);
-            return foundOwner.orElseThrow(PersonNotFoundException::new);
-        } else
-            return null;
+
+        return findOneWithOwner(bookId).getOwner();
     }
 
     @Transactional
     public void save(Book book) {
         enrichForCreate(book);
         booksRepository.save(book);
+        libraryStats.booksCreated(List.of(book));
+        publish(ChangeType.CREATE, book);
     }
     @Transactional
     public void delete(Long id) {
-        enrichForDelete(findOne(id));
+        Book bookForDelete = findOne(id);
+        if (!Boolean.TRUE.equals(bookForDelete.getRemoved())) {
+            libraryStats.bookRemoved();
+        }
+        enrichForDelete(bookForDelete);
+        publish(ChangeType.DELETE, bookForDelete);
 //        booksRepository.deleteById(id);
     }
 
     @Transactional
     public void revive(Long id) {
         Book bookForRevive = findOne(id);
+        if (Boolean.TRUE.equals(bookForRevive.getRemoved())) {
+            libraryStats.bookRevived();
+        }
+        enrichForUpdate(bookForRevive);
         bookForRevive.setRemoved(false);
+        publish(ChangeType.REVIVE, bookForRevive);
     }
 
+    /**
+     * A newDataBook carrying a version (the admin form sends the one it was
+     * rendered with) must match the stored one, so an edit made on a stale
+     * page fails instead of overwriting the change in between.
+     */
     @Transactional
     public void update(Long id, Book newDataBook) {
         Book bookForUpdate = findOne(id);
+        if (newDataBook.getVersion() != null && !newDataBook.getVersion().equals(bookForUpdate.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+        }
         enrichForUpdate(bookForUpdate);
         bookForUpdate.setName(newDataBook.getName());
         bookForUpdate.setYearOfProduction(newDataBook.getYearOfProduction());
         bookForUpdate.setAuthor(newDataBook.getAuthor());
         bookForUpdate.setAnnotation(newDataBook.getAnnotation());
+        recordLoan(id, bookForUpdate.getPersonId(), newDataBook.getPersonId(), bookForUpdate.getUpdatedAt());
         bookForUpdate.setPersonId(newDataBook.getPersonId());
         booksRepository.save(bookForUpdate);
+        publish(ChangeType.UPDATE, bookForUpdate);
     }
     @Transactional
     public void unlink(Long bookId) {
         Book bookForUnlink = findOne(bookId);
+        enrichForUpdate(bookForUnlink);
+        recordLoan(bookId, bookForUnlink.getPersonId(), null, bookForUnlink.getUpdatedAt());
         bookForUnlink.setPersonId(null);
         booksRepository.save(bookForUnlink);
+        publish(ChangeType.UNLINK, bookForUnlink);
     }
 
     @Transactional
     public void assignBookToPerson(Long bookId, Person person) {
         Book bookForAssign = findOne(bookId);
+        enrichForUpdate(bookForAssign);
+        recordLoan(bookId, bookForAssign.getPersonId(), person.getId(), bookForAssign.getUpdatedAt());
         bookForAssign.setPersonId(person.getId());
         booksRepository.save(bookForAssign);
+        publish(ChangeType.ASSIGN, bookForAssign);
     }
 
+    /**
+     * Checks the book out with a single conditional UPDATE instead of
+     * read-modify-write, so of two readers taking the same copy at once
+     * exactly one wins. Returns false if the book was not free any more.
+     */
     @Transactional
-    public void assignBookToPrincipal(Long bookId) {
-        Book bookForAssign = findOne(bookId);
-        Optional<Person> foundPerson = peopleRepository.findByName(getUserName());
-        foundPerson.ifPresent(person -> bookForAssign.setPersonId(person.getId()));
-        booksRepository.save(bookForAssign);
+    public boolean assignBookToPrincipal(Long bookId) {
+        String userName = getUserName();
+        Long personId = currentPrincipal.findId().orElseThrow(PersonNotFoundException::new);
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> assigned = booksRepository.assignFree(List.of(bookId), personId, now, userName);
+        if (assigned.isEmpty()) {
+            findOne(bookId);
+            return false;
+        }
+        loanRepository.borrowed(assigned, personId, now);
+        libraryStats.booksLent(personId, assigned.size());
+        auditHolders(assigned, null, personId, userName, now);
+        evictAfterCommit(assigned);
+        publish(ChangeType.ASSIGN, assigned);
+        return true;
+    }
+
+    /**
+     * Assigns every free, not removed book from the list to the person with
+     * set-based UPDATEs. Returns the ids that were actually assigned; the rest
+     * were busy, removed or unknown.
+     */
+    @Transactional
+    public List<Long> assignBooksToPerson(Collection<Long> bookIds, Long personId) {
+        peopleRepository.findById(personId).orElseThrow(PersonNotFoundException::new);
+        LocalDateTime now = LocalDateTime.now();
+        String userName = getUserName();
+        List<Long> assigned = new ArrayList<>();
+        for (List<Long> chunk : chunks(bookIds)) {
+            List<Long> assignedChunk = booksRepository.assignFree(chunk, personId, now, userName);
+            loanRepository.borrowed(assignedChunk, personId, now);
+            assigned.addAll(assignedChunk);
+        }
+        libraryStats.booksLent(personId, assigned.size());
+        auditHolders(assigned, null, personId, userName, now);
+        evictAfterCommit(assigned);
+        publish(ChangeType.ASSIGN, assigned);
+        return assigned;
+    }
+
+    /**
+     * Returns every book from the list that is on loan to the person, with
+     * set-based UPDATEs. Returns the ids that were actually returned.
+     */
+    @Transactional
+    public List<Long> unlinkBooksFromPerson(Collection<Long> bookIds, Long personId) {
+        peopleRepository.findById(personId).orElseThrow(PersonNotFoundException::new);
+        LocalDateTime now = LocalDateTime.now();
+        String userName = getUserName();
+        List<Long> unlinked = new ArrayList<>();
+        for (List<Long> chunk : chunks(bookIds)) {
+            List<Long> unlinkedChunk = booksRepository.unlinkFromPerson(chunk, personId, now, userName);
+            loanRepository.returned(unlinkedChunk, now);
+            unlinked.addAll(unlinkedChunk);
+        }
+        libraryStats.booksReturned(personId, unlinked.size());
+        auditHolders(unlinked, personId, null, userName, now);
+        evictAfterCommit(unlinked);
+        publish(ChangeType.UNLINK, unlinked);
+        return unlinked;
+    }
+
+    private void recordLoan(Long bookId, Long fromPersonId, Long toPersonId, LocalDateTime at) {
+        if (Objects.equals(fromPersonId, toPersonId)) {
+            return;
+        }
+        libraryStats.loanMoved(fromPersonId, toPersonId);
+        if (fromPersonId != null) {
+            loanRepository.returned(List.of(bookId), at);
+        }
+        if (toPersonId != null) {
+            loanRepository.borrowed(List.of(bookId), toPersonId, at);
+        }
+    }
+
+    /**
+     * The set-based UPDATEs bypass Hibernate and with it the audit listener,
+     * so their holder changes are audited here.
+     */
+    private void auditHolders(List<Long> bookIds, Long fromPersonId, Long toPersonId,
+                              String userName, LocalDateTime at) {
+        ChangeType action = toPersonId != null ? ChangeType.ASSIGN : ChangeType.UNLINK;
+        auditTrail.recordAfterCommit(bookIds.stream()
+                .map(id -> new AuditRecord(Book.class.getSimpleName(), id, action, "personId",
+                        Objects.toString(fromPersonId, null), Objects.toString(toPersonId, null), userName, at))
+                .toList());
+    }
+
+    private List<List<Long>> chunks(Collection<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinctIds.size(); from += IN_LIST_CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Native UPDATEs bypass the second-level cache, so the touched books and
+     * the cached query results are evicted now and again after commit.
+     */
+    private void evictAfterCommit(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        Runnable evict = () -> {
+            bookIds.forEach(id -> cache.evict(Book.class, id));
+            cache.unwrap(org.hibernate.Cache.class).evictDefaultQueryRegion();
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
     }
 
     @Transactional
@@ -126,6 +376,19 @@ public class BooksService {
         newDataBook.setAnnotation(bookForDuplicate.getAnnotation());
         enrichForCreate(newDataBook);
         booksRepository.save(newDataBook);
+        libraryStats.booksCreated(List.of(newDataBook));
+        publish(ChangeType.CREATE, newDataBook);
+    }
+
+    private void publish(ChangeType type, Book book) {
+
+        eventPublisher.publishEvent(BookChangedEvent.ofBooks(type, List.of(book)));
+    }
+
+    private void publish(ChangeType type, List<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            eventPublisher.publishEvent(BookChangedEvent.ofIds(type, bookIds));
+        }
     }
 
     public void enrichForCreate(Book book) {
@@ -146,7 +409,7 @@ public class BooksService {
     }
 
     public String getUserName() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getName();
+
+        return currentPrincipal.getName();
     }
 }
@@ -0,0 +1,106 @@
+package ru.maxima.springbootapp.library.services;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import ru.maxima.springbootapp.library.dto.BulkImportReportDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads records one by one from a streamed request body, validates them and
+ * hands them to the saver in batches, each batch in its own transaction.
+ * A batch the database rejects is retried record by record, so the report
+ * points at the exact records that failed.
+ */
+@Service
+public class BulkImportService {
+
+    private final Validator validator;
+    private final int batchSize;
+
+    @Autowired
+    public BulkImportService(Validator validator,
+                             @Value("${library.bulk.batch-size:500}") int batchSize) {
+        this.validator = validator;
+        this.batchSize = batchSize;
+    }
+
+    public <D, E> BulkImportReportDTO importRecords(MappingIterator<D> records,
+                                                    Function<D, E> converter,
+                                                    Consumer<List<E>> saver) {
+        BulkImportReportDTO report = new BulkImportReportDTO();
+        List<D> batch = new ArrayList<>(batchSize);
+        List<Long> batchRecords = new ArrayList<>(batchSize);
+        long record = 0;
+        try {
+            while (records.hasNextValue()) {
+                D dto = records.nextValue();
+                record++;
+                String violations = validate(dto);
+                if (violations != null) {
+                    report.addError(record, violations);
+                    continue;
+                }
+                batch.add(dto);
+                batchRecords.add(record);
+                if (batch.size() == batchSize) {
+                    saveBatch(batch, batchRecords, converter, saver, report);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            report.addError(record + 1, "Unreadable record, import stopped: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        saveBatch(batch, batchRecords, converter, saver, report);
+        report.setReceived(record);
+        return report;
+    }
+
+    private <D, E> void saveBatch(List<D> batch, List<Long> batchRecords,
+                                  Function<D, E> converter, Consumer<List<E>> saver,
+                                  BulkImportReportDTO report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            saver.accept(batch.stream().map(converter).toList());
+            report.setImported(report.getImported() + batch.size());
+        } catch (RuntimeException batchFailure) {
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    saver.accept(List.of(converter.apply(batch.get(i))));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException e) {
+                    report.addError(batchRecords.get(i),
+                            NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+        }
+        batch.clear();
+        batchRecords.clear();
+    }
+
+    private <D> String validate(D dto) {
+        Set<ConstraintViolation<D>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        StringBuilder bld = new StringBuilder();
+        violations.forEach(violation -> {
+            bld.append(violation.getPropertyPath())
+                    .append(" : ")
+                    .append(violation.getMessage());
+        });
+        return bld.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.maxima.springbootapp.library.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.dto.ChangeDTO;
+import ru.maxima.springbootapp.library.dto.ChangeFeedDTO;
+import ru.maxima.springbootapp.library.models.OutboxEvent;
+import ru.maxima.springbootapp.library.repositories.OutboxRepository;
+import ru.maxima.springbootapp.library.util.ChangeFeedExpiredException;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+public class ChangeFeedService {
+
+    private final OutboxRepository outboxRepository;
+
+    @Autowired
+    public ChangeFeedService(OutboxRepository outboxRepository) {
+
+        this.outboxRepository = outboxRepository;
+    }
+
+    /**
+     * Events after "since". A consumer whose "since" is behind events already
+     * removed by retention gets ChangeFeedExpiredException instead of a
+     * silent gap; it has to resync in full and start again from 0. The
+     * watermark is read after the page, so a cleanup that commits in between
+     * is noticed too.
+     */
+    public ChangeFeedDTO findSince(long since, int limit) {
+        List<ChangeDTO> changes = outboxRepository
+                .findByPositionGreaterThanOrderByPositionAsc(since, PageRequest.of(0, limit)).stream()
+                .map(this::toChangeDTO).toList();
+        if (since > 0 && since < outboxRepository.findPrunedThrough()) {
+            throw new ChangeFeedExpiredException("Changes after " + since + " are no longer kept, " +
+                    "resync in full and continue from since=0");
+        }
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).getPosition();
+        return new ChangeFeedDTO(changes, next);
+    }
+
+    private ChangeDTO toChangeDTO(OutboxEvent event) {
+        ChangeDTO changeDTO = new ChangeDTO();
+        changeDTO.setPosition(event.getPosition());
+        changeDTO.setEntity(event.getAggregateType());
+        changeDTO.setId(event.getAggregateId());
+        changeDTO.setType(event.getEventType());
+        changeDTO.setOccurredAt(event.getOccurredAt());
+        return changeDTO;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.maxima.springbootapp.library.services;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.dto.BookDeltaDTO;
+import ru.maxima.springbootapp.library.dto.DeltaPageDTO;
+import ru.maxima.springbootapp.library.dto.PersonDeltaDTO;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+import ru.maxima.springbootapp.library.util.LiveRows;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Rows changed after a watermark, by their latest audit timestamp. Audit
+ * timestamps are taken before commit, so rows younger than the settle window
+ * are held back: a transaction still in flight can't later show up behind a
+ * watermark a replica has already moved past. Removed rows are included as
+ * tombstones, so the liveRows filter is off here.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeltaSyncService {
+
+    public static final LocalDateTime FULL_SYNC = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final EntityManager entityManager;
+    private final Duration settle;
+
+    @Autowired
+    public DeltaSyncService(BooksRepository booksRepository, PeopleRepository peopleRepository,
+                            EntityManager entityManager, @Value("${library.sync.settle}") Duration settle) {
+        this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.entityManager = entityManager;
+        this.settle = settle;
+    }
+
+    public DeltaPageDTO<BookDeltaDTO> findBooksChangedSince(LocalDateTime since, long afterId, int limit) {
+        LiveRows.disable(entityManager);
+        Slice<Book> books = booksRepository.findChangedSince(since, afterId, horizon(), PageRequest.of(0, limit));
+        return toPage(books, since, afterId, this::toBookDeltaDTO, BookDeltaDTO::getChangedAt, BookDeltaDTO::getId);
+    }
+
+    public DeltaPageDTO<PersonDeltaDTO> findPeopleChangedSince(LocalDateTime since, long afterId, int limit) {
+        LiveRows.disable(entityManager);
+        Slice<Person> people = peopleRepository.findChangedSince(since, afterId, horizon(), PageRequest.of(0, limit));
+        return toPage(people, since, afterId, this::toPersonDeltaDTO, PersonDeltaDTO::getChangedAt, PersonDeltaDTO::getId);
+    }
+
+    private LocalDateTime horizon() {
+
+        return LocalDateTime.now().minus(settle);
+    }
+
+    private <E, D> DeltaPageDTO<D> toPage(Slice<E> rows, LocalDateTime since, long afterId, Function<E, D> converter,
+                                          Function<D, LocalDateTime> changedAt, Function<D, Long> id) {
+        List<D> changes = rows.stream().map(converter).toList();
+        if (changes.isEmpty()) {
+            return new DeltaPageDTO<>(changes, since, afterId, false);
+        }
+        D last = changes.get(changes.size() - 1);
+        return new DeltaPageDTO<>(changes, changedAt.apply(last), id.apply(last), rows.hasNext());
+    }
+
+    private BookDeltaDTO toBookDeltaDTO(Book book) {
+        BookDeltaDTO bookDeltaDTO = new BookDeltaDTO();
+        bookDeltaDTO.setId(book.getId());
+        bookDeltaDTO.setName(book.getName());
+        bookDeltaDTO.setYearOfProduction(book.getYearOfProduction());
+        bookDeltaDTO.setAuthor(book.getAuthor());
+        bookDeltaDTO.setAnnotation(book.getAnnotation());
+        bookDeltaDTO.setPersonId(book.getPersonId());
+        bookDeltaDTO.setRemoved(book.getRemoved());
+        bookDeltaDTO.setChangedAt(latest(book.getCreatedAt(), book.getUpdatedAt(), book.getRemovedAt()));
+        return bookDeltaDTO;
+    }
+
+    private PersonDeltaDTO toPersonDeltaDTO(Person person) {
+        PersonDeltaDTO personDeltaDTO = new PersonDeltaDTO();
+        personDeltaDTO.setId(person.getId());
+        personDeltaDTO.setName(person.getName());
+        personDeltaDTO.setAge(person.getAge());
+        personDeltaDTO.setEmail(person.getEmail());
+        personDeltaDTO.setPhoneNumber(person.getPhoneNumber());
+        personDeltaDTO.setRemoved(person.getRemoved());
+        personDeltaDTO.setChangedAt(latest(person.getCreatedAt(), person.getUpdatedAt(), person.getRemovedAt()));
+        return personDeltaDTO;
+    }
+
+    /**
+     * Same value the queries page by: rows without any audit timestamp sort
+     * at FULL_SYNC.
+     */
+    private static LocalDateTime latest(LocalDateTime... timestamps) {
+
+        return Stream.of(timestamps).filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(FULL_SYNC);
+    }
+}
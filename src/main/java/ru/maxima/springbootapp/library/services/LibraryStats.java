@@ -0,0 +1,218 @@
+package ru.maxima.springbootapp.library.services;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.maxima.springbootapp.library.dto.LibraryStatsDTO;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.projections.ReaderHoldings;
+import ru.maxima.springbootapp.library.projections.RowCounts;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Catalogue totals for the admin page, kept in memory so reading them costs
+ * nothing. BooksService and PeopleService report every change they make; the
+ * delta is applied once the transaction commits. Every
+ * library.stats.reconcile-interval the totals are recounted from the database
+ * to repair what the services don't see (archival, manual SQL, other
+ * instances). A book is on loan while it has a holder, removed or not, and a
+ * reader is active while holding at least one book.
+ */
+@Component
+public class LibraryStats {
+
+    private final BooksRepository booksRepository;
+    private final PeopleRepository peopleRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private Counts counts = new Counts();
+    private List<Consumer<Counts>> replay;
+    private volatile LibraryStatsDTO snapshot = counts.toDTO(null);
+
+    @Autowired
+    public LibraryStats(BooksRepository booksRepository, PeopleRepository peopleRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.booksRepository = booksRepository;
+        this.peopleRepository = peopleRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public LibraryStatsDTO current() {
+
+        return snapshot;
+    }
+
+    public void booksCreated(Collection<Book> books) {
+        int created = books.size();
+        List<Long> holders = books.stream().map(Book::getPersonId).filter(Objects::nonNull).toList();
+        afterCommit(counts -> {
+            counts.books += created;
+            holders.forEach(personId -> counts.lend(personId, 1));
+        });
+    }
+
+    public void bookRemoved() {
+        afterCommit(counts -> {
+            counts.books--;
+            counts.booksRemoved++;
+        });
+    }
+
+    public void bookRevived() {
+        afterCommit(counts -> {
+            counts.books++;
+            counts.booksRemoved--;
+        });
+    }
+
+    public void loanMoved(Long fromPersonId, Long toPersonId) {
+        if (Objects.equals(fromPersonId, toPersonId)) {
+            return;
+        }
+        afterCommit(counts -> {
+            if (fromPersonId != null) {
+                counts.lend(fromPersonId, -1);
+            }
+            if (toPersonId != null) {
+                counts.lend(toPersonId, 1);
+            }
+        });
+    }
+
+    public void booksLent(Long personId, int books) {
+        if (books > 0) {
+            afterCommit(counts -> counts.lend(personId, books));
+        }
+    }
+
+    public void booksReturned(Long personId, int books) {
+        if (books > 0) {
+            afterCommit(counts -> counts.lend(personId, -books));
+        }
+    }
+
+    public void peopleCreated(int created) {
+
+        afterCommit(counts -> counts.people += created);
+    }
+
+    public void personRemoved() {
+        afterCommit(counts -> {
+            counts.people--;
+            counts.peopleRemoved++;
+        });
+    }
+
+    public void personRevived() {
+        afterCommit(counts -> {
+            counts.people++;
+            counts.peopleRemoved--;
+        });
+    }
+
+    private void afterCommit(Consumer<Counts> delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(delta);
+            }
+        });
+    }
+
+    private synchronized void apply(Consumer<Counts> delta) {
+        delta.accept(counts);
+        if (replay != null) {
+            replay.add(delta);
+        }
+        snapshot = counts.toDTO(snapshot.getReconciledAt());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+
+        reconcile();
+    }
+
+    /**
+     * Recounts outside the lock, then swaps the result in, replaying the
+     * deltas that committed meanwhile. A write whose commit races the start
+     * of the recount may be counted twice until the next pass.
+     */
+    @Scheduled(fixedDelayString = "${library.stats.reconcile-interval}",
+            initialDelayString = "${library.stats.reconcile-interval}")
+    public void reconcile() {
+        synchronized (this) {
+            if (replay != null) {
+                return;
+            }
+            replay = new ArrayList<>();
+        }
+        Counts recounted = new Counts();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                RowCounts books = booksRepository.countRows();
+                RowCounts people = peopleRepository.countRows();
+                recounted.books = books.getLive();
+                recounted.booksRemoved = books.getRemoved();
+                recounted.people = people.getLive();
+                recounted.peopleRemoved = people.getRemoved();
+                try (Stream<ReaderHoldings> holdings = booksRepository.streamHoldings()) {
+                    holdings.forEach(holding -> recounted.lend(holding.getPersonId(), holding.getBooks()));
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                replay = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            replay.forEach(delta -> delta.accept(recounted));
+            counts = recounted;
+            replay = null;
+            snapshot = counts.toDTO(LocalDateTime.now());
+        }
+    }
+
+    private static class Counts {
+        private final Long2IntOpenHashMap loansByReader = new Long2IntOpenHashMap();
+        private long books;
+        private long booksRemoved;
+        private long booksOnLoan;
+        private long people;
+        private long peopleRemoved;
+
+        void lend(long personId, int books) {
+            booksOnLoan += books;
+            if (loansByReader.addTo(personId, books) + books <= 0) {
+                loansByReader.remove(personId);
+            }
+        }
+
+        LibraryStatsDTO toDTO(LocalDateTime reconciledAt) {
+            return new LibraryStatsDTO(books, booksOnLoan, booksRemoved,
+                    people, loansByReader.size(), peopleRemoved, reconciledAt);
+        }
+    }
+}
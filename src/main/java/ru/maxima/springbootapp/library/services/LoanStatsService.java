@@ -0,0 +1,69 @@
+package ru.maxima.springbootapp.library.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.dto.LoanDurationDTO;
+import ru.maxima.springbootapp.library.dto.ReaderLoansDTO;
+import ru.maxima.springbootapp.library.dto.TitleLoansDTO;
+import ru.maxima.springbootapp.library.repositories.LoanRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Circulation figures from the loan rollups, plus upkeep of the monthly
+ * history partitions. Month ranges include both ends.
+ */
+@Service
+@Transactional(readOnly = true)
+public class LoanStatsService {
+
+    private static final int PARTITIONS_AHEAD = 2;
+
+    private final LoanRepository loanRepository;
+
+    @Autowired
+    public LoanStatsService(LoanRepository loanRepository) {
+
+        this.loanRepository = loanRepository;
+    }
+
+    public List<TitleLoansDTO> findMostBorrowed(YearMonth from, YearMonth to, int limit) {
+
+        return loanRepository.findMostBorrowed(firstDay(from), firstDay(to.plusMonths(1)), limit);
+    }
+
+    public List<ReaderLoansDTO> findActiveByReader(int limit) {
+
+        return loanRepository.findActiveByReader(limit);
+    }
+
+    public LoanDurationDTO findAverageDuration(YearMonth from, YearMonth to) {
+
+        return loanRepository.findAverageDuration(firstDay(from), firstDay(to.plusMonths(1)));
+    }
+
+    /**
+     * Keeps partitions for this month and the next two in place, so new loans
+     * never land in the default partition.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${library.loans.partition-cron}")
+    @Transactional
+    public void createPartitions() {
+        YearMonth month = YearMonth.now();
+        for (int ahead = 0; ahead <= PARTITIONS_AHEAD; ahead++) {
+            loanRepository.createPartition(firstDay(month.plusMonths(ahead)));
+        }
+    }
+
+    private static LocalDate firstDay(YearMonth month) {
+
+        return month.atDay(1);
+    }
+}
@@ -1,28 +1,47 @@
 package ru.maxima.springbootapp.library.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.events.PersonChangedEvent;
+import ru.maxima.springbootapp.library.events.ChangeType;
 import ru.maxima.springbootapp.library.models.Person;
 import ru.maxima.springbootapp.library.repositories.PeopleRepository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @Transactional(readOnly = true)
 public class PeopleRestService {
 
     private final PeopleRepository peopleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryStats libraryStats;
     @Autowired
-    public PeopleRestService(PeopleRepository peopleRepository) {
-
+    public PeopleRestService(PeopleRepository peopleRepository, ApplicationEventPublisher eventPublisher,
+                             LibraryStats libraryStats) {
         this.peopleRepository = peopleRepository;
+        this.eventPublisher = eventPublisher;
+        this.libraryStats = libraryStats;
     }
 
     @Transactional
     public void save(Person person) {
         enrichForCreate(person);
         peopleRepository.save(person);
+        libraryStats.peopleCreated(1);
+        eventPublisher.publishEvent(new PersonChangedEvent(ChangeType.CREATE, List.of(person.getId())));
+    }
+
+    @Transactional
+    public void saveAll(List<Person> people) {
+        people.forEach(this::enrichForCreate);
+        peopleRepository.saveAll(people);
+        libraryStats.peopleCreated(people.size());
+        eventPublisher.publishEvent(new PersonChangedEvent(ChangeType.CREATE,
+                people.stream().map(Person::getId).toList()));
     }
 
     public void enrichForCreate(Person person) {
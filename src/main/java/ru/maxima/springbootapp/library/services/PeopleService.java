@@ -1,14 +1,20 @@
 package ru.maxima.springbootapp.library.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.maxima.springbootapp.library.events.ChangeType;
+import ru.maxima.springbootapp.library.events.PersonChangedEvent;
 import ru.maxima.springbootapp.library.models.Book;
 import ru.maxima.springbootapp.library.models.Person;
 import ru.maxima.springbootapp.library.repositories.BooksRepository;
 import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+import ru.maxima.springbootapp.library.security.CurrentPrincipal;
+import ru.maxima.springbootapp.library.security.PrincipalCache;
 import ru.maxima.springbootapp.library.util.PersonNotFoundException;
 
 import java.time.LocalDateTime;
@@ -20,11 +26,21 @@ import java.util.Optional;
 public class PeopleService {
     private final PeopleRepository peopleRepository;
     private final BooksRepository booksRepository;
+    private final PrincipalCache principalCache;
+    private final CurrentPrincipal currentPrincipal;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LibraryStats libraryStats;
 
     @Autowired
-    public PeopleService(PeopleRepository peopleRepository, BooksRepository booksRepository) {
+    public PeopleService(PeopleRepository peopleRepository, BooksRepository booksRepository,
+                         PrincipalCache principalCache, CurrentPrincipal currentPrincipal,
+                         ApplicationEventPublisher eventPublisher, LibraryStats libraryStats) {
         this.peopleRepository = peopleRepository;
         this.booksRepository = booksRepository;
+        this.principalCache = principalCache;
+        this.currentPrincipal = currentPrincipal;
+        this.eventPublisher = eventPublisher;
+        this.libraryStats = libraryStats;
     }
 
     public List<Person> findAll() {
@@ -32,11 +48,26 @@ public class PeopleService {
         return peopleRepository.findAll();
     }
 
+    public Slice<Person> findAll(Pageable pageable) {
+
+        return peopleRepository.findAllBy(pageable);
+    }
+
+    public List<Person> findByNamePrefix(String prefix, int size) {
+        String namePrefix = prefix != null ? prefix.trim() : "";
+        return peopleRepository.findByNameStartingWithOrderByName(namePrefix, PageRequest.of(0, size)).getContent();
+    }
+
     public List<Book> findBooksInUse(Long personId) {
 
         return booksRepository.findByPersonId(personId);
     }
 
+    public Person findOneWithBooksInUse(Long id) {
+        Optional<Person> foundPerson = peopleRepository.findWithBooksInUseById(id);
+        return foundPerson.orElseThrow(PersonNotFoundException::new);
+    }
+
     public Person findOne(Long id) {
         Optional<Person> foundPerson =  peopleRepository.findById(id);
         return foundPerson.orElseThrow(PersonNotFoundException::new);
@@ -46,30 +77,51 @@ public class PeopleService {
     public void save(Person person) {
         enrichForCreate(person);
         peopleRepository.save(person);
+        libraryStats.peopleCreated(1);
+        publish(ChangeType.CREATE, person.getId());
     }
 
     @Transactional
     public void delete(Long id) {
-
-        enrichForDelete(findOne(id));
+        Person personForDelete = findOne(id);
+        if (!Boolean.TRUE.equals(personForDelete.getRemoved())) {
+            libraryStats.personRemoved();
+        }
+        enrichForDelete(personForDelete);
+        principalCache.evict(personForDelete.getName());
+        publish(ChangeType.DELETE, id);
 //        peopleRepository.deleteById(id);
     }
 
     @Transactional
     public void revive(Long id) {
         Person personForRevive = findOne(id);
+        if (Boolean.TRUE.equals(personForRevive.getRemoved())) {
+            libraryStats.personRevived();
+        }
+        enrichForUpdate(personForRevive);
         personForRevive.setRemoved(false);
+        principalCache.evict(personForRevive.getName());
+        publish(ChangeType.REVIVE, id);
     }
 
     @Transactional
     public void update(Long id, Person newDataPerson) {
         Person personForUpdate = findOne(id);
+        principalCache.evict(personForUpdate.getName());
+        principalCache.evict(newDataPerson.getName());
         enrichForUpdate(personForUpdate);
         personForUpdate.setName(newDataPerson.getName());
         personForUpdate.setAge(newDataPerson.getAge());
         personForUpdate.setEmail(newDataPerson.getEmail());
         personForUpdate.setPhoneNumber(newDataPerson.getPhoneNumber());
         peopleRepository.save(personForUpdate);
+        publish(ChangeType.UPDATE, id);
+    }
+
+    private void publish(ChangeType type, Long personId) {
+
+        eventPublisher.publishEvent(new PersonChangedEvent(type, List.of(personId)));
     }
 
     public void enrichForCreate(Person person) {
@@ -92,8 +144,8 @@ public class PeopleService {
     }
 
     public String getUserName() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication.getName();
+
+        return currentPrincipal.getName();
     }
 
 }
@@ -5,30 +5,30 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import ru.maxima.springbootapp.library.models.Person;
-import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+import ru.maxima.springbootapp.library.security.CachedPrincipal;
 import ru.maxima.springbootapp.library.security.PersonDetails;
+import ru.maxima.springbootapp.library.security.PrincipalCache;
 
 import java.util.Optional;
 
 @Service
 public class PersonDetailsService implements UserDetailsService {
 
-    private final PeopleRepository peopleRepository;
+    private final PrincipalCache principalCache;
 
     @Autowired
-    public PersonDetailsService(PeopleRepository peopleRepository) {
-        this.peopleRepository = peopleRepository;
+    public PersonDetailsService(PrincipalCache principalCache) {
+        this.principalCache = principalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<Person> person = peopleRepository.findByName(username);
-        if (person.isEmpty()) {
+        Optional<CachedPrincipal> principal = principalCache.find(username);
+        if (principal.isEmpty()) {
             throw new UsernameNotFoundException("User not found");
         }
         return new PersonDetails(
 
-                person.get());
+                principal.get().toPerson());
     }
 }
@@ -0,0 +1,8 @@
+package ru.maxima.springbootapp.library.util;
+
+public class BooksNotProcessedException extends RuntimeException {
+    public BooksNotProcessedException(String message) {
+
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.maxima.springbootapp.library.util;
+
+public class ChangeFeedExpiredException extends RuntimeException {
+
+    public ChangeFeedExpiredException(String message) {
+
+        super(message);
+    }
+}
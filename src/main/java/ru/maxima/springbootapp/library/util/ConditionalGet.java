@@ -0,0 +1,55 @@
+package ru.maxima.springbootapp.library.util;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Validators for conditional GET: a strong ETag built from id and version,
+ * Last-Modified from the audit columns. Responses are marked "no-cache" so
+ * clients and proxies keep them but revalidate on every use (otherwise
+ * Spring Security would send "no-store").
+ */
+public final class ConditionalGet {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private ConditionalGet() {
+    }
+
+    public static String eTag(Long id, Long version) {
+
+        return "\"" + id + "-" + (version == null ? 0 : version) + "\"";
+    }
+
+    public static long lastModified(LocalDateTime... timestamps) {
+        return Stream.of(timestamps)
+                .filter(Objects::nonNull)
+                .max(LocalDateTime::compareTo)
+                .map(time -> time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(-1L);
+    }
+
+    /**
+     * Sets the validators on the response and returns true when the client's
+     * copy is still current; the caller then returns null and Spring answers 304.
+     */
+    public static boolean notModified(ServletWebRequest request, String eTag, long lastModified) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    public static boolean notModified(ServletWebRequest request, String eTag) {
+
+        return notModified(request, eTag, -1);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.maxima.springbootapp.library.util;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+/**
+ * The "liveRows" Hibernate filter (removed = false on book and person). It is
+ * switched on for every transaction, so queries skip soft-deleted rows in the
+ * database; admin views run with includeRemoved set for their request and
+ * see everything. Lookups by id are never filtered.
+ */
+public final class LiveRows {
+
+    public static final String FILTER = "liveRows";
+
+    private static final ThreadLocal<Boolean> INCLUDE_REMOVED = new ThreadLocal<>();
+
+    private LiveRows() {
+    }
+
+    public static boolean isRemovedIncluded() {
+
+        return Boolean.TRUE.equals(INCLUDE_REMOVED.get());
+    }
+
+    public static void includeRemoved() {
+
+        INCLUDE_REMOVED.set(Boolean.TRUE);
+    }
+
+    public static void reset() {
+
+        INCLUDE_REMOVED.remove();
+    }
+
+    public static void enable(EntityManager entityManager) {
+
+        entityManager.unwrap(Session.class).enableFilter(FILTER);
+    }
+
+    /**
+     * Turns the filter off for the rest of the current transaction.
+     */
+    public static void disable(EntityManager entityManager) {
+
+        entityManager.unwrap(Session.class).disableFilter(FILTER);
+    }
+}
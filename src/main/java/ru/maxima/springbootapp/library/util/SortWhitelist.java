@@ -0,0 +1,31 @@
+package ru.maxima.springbootapp.library.util;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+/**
+ * Keeps user supplied ?sort= parameters to the columns a page offers,
+ * falling back to id order for anything else.
+ */
+public final class SortWhitelist {
+
+    private SortWhitelist() {
+    }
+
+    public static Pageable restrict(Pageable pageable, Set<String> sortable) {
+        boolean allowed = pageable.getSort().stream()
+                .allMatch(order -> sortable.contains(order.getProperty()));
+        if (allowed && pageable.getSort().isSorted()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
+    }
+
+    public static String toParam(Pageable pageable) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        return order.getProperty() + "," + order.getDirection().name().toLowerCase();
+    }
+}
@@ -0,0 +1,4 @@
+-- Watermark lookups for /api/books/changed and /api/people/changed: the last
+-- audit timestamp of a row, with id to page through equal timestamps.
+create index book_changed_at_idx on book ((greatest(created_at, updated_at, removed_at)), id);
+create index person_changed_at_idx on person ((greatest(created_at, updated_at, removed_at)), id);
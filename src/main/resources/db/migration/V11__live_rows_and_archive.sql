@@ -0,0 +1,47 @@
+-- List queries now filter on removed = false in the database (the liveRows
+-- Hibernate filter); these partial indexes cover only live rows.
+create index book_live_id_idx on book (id) where removed = false;
+create index book_live_name_author_idx on book (name, author) where removed = false;
+create index person_live_id_idx on person (id) where removed = false;
+create index person_live_name_idx on person (name) where removed = false;
+
+-- Long-removed rows are moved here in batches by ArchivalService.
+create table book_archive (
+    id bigint primary key,
+    name varchar,
+    year_of_production int,
+    author varchar,
+    annotation varchar,
+    created_at timestamp,
+    updated_at timestamp,
+    removed_at timestamp,
+    created_person varchar,
+    updated_person varchar,
+    removed_person varchar,
+    removed bool,
+    person_id bigint,
+    version bigint,
+    archived_at timestamp not null default now()
+);
+
+create table person_archive (
+    id bigint primary key,
+    name varchar,
+    age int,
+    email varchar,
+    phone_number varchar,
+    password varchar,
+    role varchar,
+    created_at timestamp,
+    updated_at timestamp,
+    removed_at timestamp,
+    created_person varchar,
+    updated_person varchar,
+    removed_person varchar,
+    removed bool,
+    version bigint,
+    archived_at timestamp not null default now()
+);
+
+create index book_removed_at_idx on book (removed_at) where removed = true;
+create index person_removed_at_idx on person (removed_at) where removed = true;
@@ -0,0 +1,61 @@
+-- Append-only loan history: one row when a book goes out (OUT) and one when
+-- it comes back (IN), partitioned by month of the event.
+create table loan (
+    id bigint generated by default as identity,
+    book_id bigint not null,
+    person_id bigint not null,
+    event varchar(3) not null,
+    occurred_at timestamp not null,
+    primary key (id, occurred_at)
+) partition by range (occurred_at);
+
+create index loan_book_id_idx on loan (book_id, occurred_at);
+create index loan_person_id_idx on loan (person_id, occurred_at);
+
+-- Catches rows for a month whose partition doesn't exist yet.
+create table loan_default partition of loan default;
+
+create function create_loan_partition(month date) returns void as $$
+declare
+    first_day date := date_trunc('month', month);
+begin
+    execute format('create table if not exists %I partition of loan for values from (%L) to (%L)',
+                   'loan_' || to_char(first_day, 'YYYY_MM'), first_day, first_day + interval '1 month');
+end;
+$$ language plpgsql;
+
+select create_loan_partition((date_trunc('month', now()) + make_interval(months => m))::date)
+from generate_series(0, 2) as m;
+
+-- Books currently out, with the start of the loan, so a return knows its duration.
+create table active_loan (
+    book_id bigint primary key,
+    person_id bigint not null,
+    started_at timestamp not null
+);
+
+-- Rollups kept up to date by the writes above; the analytics endpoints only read these.
+create table loan_title_monthly (
+    month date not null,
+    name varchar not null,
+    author varchar not null,
+    loans bigint not null,
+    primary key (month, name, author)
+);
+
+-- Spread over shards (book_id % 16) so concurrent returns don't queue on one row.
+create table loan_duration_monthly (
+    month date not null,
+    shard int not null,
+    returns bigint not null,
+    total_seconds numeric not null,
+    primary key (month, shard)
+);
+
+create table reader_loan_stats (
+    person_id bigint primary key,
+    active int not null,
+    total bigint not null
+);
+
+create index reader_loan_stats_active_idx on reader_loan_stats (active desc) where active > 0;
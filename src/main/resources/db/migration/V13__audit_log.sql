@@ -0,0 +1,17 @@
+-- Field-level audit history of book and person, one row per changed field.
+-- Rows are appended in batches by a background writer after the change has
+-- committed, so the table is written to, never updated.
+create table audit_log (
+    id bigint generated by default as identity primary key,
+    entity_type varchar not null,
+    entity_id bigint not null,
+    action varchar not null,
+    field varchar not null,
+    old_value text,
+    new_value text,
+    changed_by varchar,
+    changed_at timestamp not null
+);
+
+create index audit_log_entity_idx on audit_log (entity_type, entity_id, changed_at);
+create index audit_log_changed_at_idx on audit_log (changed_at);
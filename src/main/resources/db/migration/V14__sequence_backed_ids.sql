@@ -0,0 +1,13 @@
+-- Hibernate validates @SequenceGenerator against information_schema.sequences,
+-- which does not list the sequences behind identity columns, so book_id_seq and
+-- person_id_seq looked missing and ddl-auto=validate refused to start. The ids
+-- now come from ordinary sequences with the same name, step and position.
+alter table book alter column id drop identity;
+create sequence book_id_seq increment by 50 owned by book.id;
+select setval('book_id_seq', coalesce(max(id), 0) + 50, false) from book;
+alter table book alter column id set default nextval('book_id_seq');
+
+alter table person alter column id drop identity;
+create sequence person_id_seq increment by 50 owned by person.id;
+select setval('person_id_seq', coalesce(max(id), 0) + 50, false) from person;
+alter table person alter column id set default nextval('person_id_seq');
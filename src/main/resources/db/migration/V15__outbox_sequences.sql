@@ -0,0 +1,18 @@
+-- Feed positions used to continue from max(position), so once retention had
+-- emptied the table they restarted at 1 and consumers holding a higher
+-- "since" silently skipped events. They now come from a sequence of their own,
+-- and outbox_retention remembers the highest position cleanup has deleted, so
+-- a consumer behind it is told instead of skipping what was pruned.
+create sequence outbox_event_position_seq;
+select setval('outbox_event_position_seq', coalesce(max(position), 0) + 1, false) from outbox_event;
+
+create table outbox_retention (
+    pruned_through bigint not null
+);
+insert into outbox_retention (pruned_through) values (0);
+
+-- Same as V14: Hibernate doesn't see identity sequences when validating.
+alter table outbox_event alter column id drop identity;
+create sequence outbox_event_id_seq increment by 50 owned by outbox_event.id;
+select setval('outbox_event_id_seq', coalesce(max(id), 0) + 50, false) from outbox_event;
+alter table outbox_event alter column id set default nextval('outbox_event_id_seq');
@@ -0,0 +1,10 @@
+-- greatest() is null when created_at, updated_at and removed_at all are, so rows
+-- seeded by plain SQL without audit columns never matched a delta sync, not even
+-- the full one. They now count as changed at 1970-01-01; the queries in
+-- BooksRepository/PeopleRepository use the same expression to keep the index.
+drop index book_changed_at_idx;
+drop index person_changed_at_idx;
+create index book_changed_at_idx on book
+    ((coalesce(greatest(created_at, updated_at, removed_at), cast('1970-01-01 00:00:00' as timestamp(6)))), id);
+create index person_changed_at_idx on person
+    ((coalesce(greatest(created_at, updated_at, removed_at), cast('1970-01-01 00:00:00' as timestamp(6)))), id);
@@ -0,0 +1,32 @@
+create table if not exists book (
+id bigint generated by default as identity,
+name varchar,
+year_of_production int,
+author varchar,
+annotation varchar,
+created_at varchar,
+updated_at varchar,
+removed_at varchar,
+created_person varchar,
+updated_person varchar,
+removed_person varchar,
+removed bool,
+person_id bigint
+);
+
+create table if not exists person (
+id bigint generated by default as identity,
+name varchar,
+age int,
+email varchar,
+phone_number varchar,
+password varchar,
+role varchar,
+created_at varchar,
+updated_at varchar,
+removed_at varchar,
+created_person varchar,
+updated_person varchar,
+removed_person varchar,
+removed bool
+);
@@ -0,0 +1,5 @@
+create index book_person_id_idx on book (person_id);
+
+create index book_removed_person_id_idx on book (removed, person_id) where removed = false;
+
+create unique index person_name_idx on person (name);
@@ -0,0 +1,9 @@
+alter table book
+    alter column created_at type timestamp using created_at::timestamp,
+    alter column updated_at type timestamp using updated_at::timestamp,
+    alter column removed_at type timestamp using removed_at::timestamp;
+
+alter table person
+    alter column created_at type timestamp using created_at::timestamp,
+    alter column updated_at type timestamp using updated_at::timestamp,
+    alter column removed_at type timestamp using removed_at::timestamp;
@@ -0,0 +1,8 @@
+-- Hibernate allocates ids from the identity sequences in blocks of 50 (pooled optimizer),
+-- which lets inserts be batched. Plain SQL inserts that still use the identity default
+-- take a whole block for themselves, so both kinds of writers never collide.
+alter table book alter column id set increment by 50;
+select setval(pg_get_serial_sequence('book', 'id'), coalesce(max(id), 0) + 50, false) from book;
+
+alter table person alter column id set increment by 50;
+select setval(pg_get_serial_sequence('person', 'id'), coalesce(max(id), 0) + 50, false) from person;
@@ -0,0 +1 @@
+alter table book add column version bigint not null default 0;
@@ -0,0 +1,7 @@
+alter table book add column search_vector tsvector generated always as (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('simple', coalesce(author, '')), 'B') ||
+    setweight(to_tsvector('simple', coalesce(annotation, '')), 'C')
+) stored;
+
+create index book_search_vector_idx on book using gin (search_vector);
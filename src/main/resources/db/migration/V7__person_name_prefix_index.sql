@@ -0,0 +1 @@
+create index person_name_prefix_idx on person (name varchar_pattern_ops);
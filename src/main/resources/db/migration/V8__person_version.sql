@@ -0,0 +1,3 @@
+-- Gives person rows the same optimistic-lock counter as book, which also
+-- backs the ETag of GET /api/people/{id}.
+alter table person add column version bigint not null default 0;
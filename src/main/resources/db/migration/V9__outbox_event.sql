@@ -0,0 +1,14 @@
+-- Transactional outbox behind GET /api/changes. Rows are written in the same
+-- transaction as the change; "position" is assigned later by a single
+-- sequencer, in commit order, so a feed offset never skips a late commit.
+create table outbox_event (
+    id bigint generated by default as identity (increment by 50) primary key,
+    position bigint,
+    aggregate_type varchar not null,
+    aggregate_id bigint not null,
+    event_type varchar not null,
+    occurred_at timestamp not null
+);
+
+create unique index outbox_event_position_idx on outbox_event (position);
+create index outbox_event_pending_idx on outbox_event (id) where position is null;
@@ -0,0 +1,10 @@
+package ru.maxima.springbootapp.library;
+
+import org.junit.jupiter.api.Test;
+
+class ContextTest extends PostgresTest {
+
+    @Test
+    void startsOnMigratedSchema() {
+    }
+}
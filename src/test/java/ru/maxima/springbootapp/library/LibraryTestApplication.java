@@ -0,0 +1,11 @@
+package ru.maxima.springbootapp.library;
+
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The source tree has no application class of its own; tests boot the whole
+ * library package from here.
+ */
+@SpringBootApplication
+public class LibraryTestApplication {
+}
@@ -0,0 +1,107 @@
+package ru.maxima.springbootapp.library;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+import ru.maxima.springbootapp.library.repositories.BooksRepository;
+import ru.maxima.springbootapp.library.repositories.PeopleRepository;
+import ru.maxima.springbootapp.library.security.PersonDetails;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+/**
+ * Base of the integration tests: the full application on one embedded
+ * PostgreSQL per JVM, migrated by Flyway like production, so native queries,
+ * partial indexes and the liveRows filter run against the real thing. The
+ * outbox jobs are pushed out of the way so they don't run mid-test.
+ */
+@SpringBootTest(classes = LibraryTestApplication.class, properties = {
+        "library.reactive.port=0",
+        "management.server.port=",
+        "library.outbox.publish-interval=PT1H",
+        "library.outbox.cleanup-interval=PT1H"
+})
+@AutoConfigureMockMvc
+public abstract class PostgresTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected BooksRepository booksRepository;
+
+    @Autowired
+    protected PeopleRepository peopleRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        int port = POSTGRES.getPort();
+        registry.add("spring.datasource.url", () -> "jdbc:postgresql://localhost:" + port + "/postgres");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + port + "/postgres");
+    }
+
+    protected Person savePerson(String role) {
+        Person person = new Person();
+        person.setName("person-" + UUID.randomUUID());
+        person.setAge(30);
+        person.setRole(role);
+        person.setRemoved(false);
+        person.setCreatedAt(LocalDateTime.now());
+        person.setCreatedPerson("test");
+        return save(person);
+    }
+
+    protected Book saveBook(Long personId) {
+        Book book = new Book();
+        book.setName("book-" + UUID.randomUUID());
+        book.setAuthor("author");
+        book.setYearOfProduction(2000);
+        book.setPersonId(personId);
+        book.setRemoved(false);
+        book.setCreatedAt(LocalDateTime.now());
+        book.setCreatedPerson("test");
+        return save(book);
+    }
+
+    protected Person save(Person person) {
+
+        return new TransactionTemplate(transactionManager).execute(status -> peopleRepository.save(person));
+    }
+
+    protected Book save(Book book) {
+
+        return new TransactionTemplate(transactionManager).execute(status -> booksRepository.save(book));
+    }
+
+    protected static RequestPostProcessor as(Person person) {
+
+        return user(new PersonDetails(person));
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
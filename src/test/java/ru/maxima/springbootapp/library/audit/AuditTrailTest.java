@@ -0,0 +1,43 @@
+package ru.maxima.springbootapp.library.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.maxima.springbootapp.library.events.ChangeType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The writer is never started here, so the queue stays full once it is.
+ */
+class AuditTrailTest {
+
+    private static final Duration OFFER_TIMEOUT = Duration.ofMillis(200);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditTrail auditTrail = new AuditTrail(null, 2, 500, Duration.ofSeconds(1), OFFER_TIMEOUT,
+            meterRegistry);
+
+    @Test
+    void fullQueueCostsOneTimeoutPerListAndCountsTheRest() {
+        long start = System.nanoTime();
+        auditTrail.record(records(10));
+        Duration waited = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(waited).isGreaterThanOrEqualTo(OFFER_TIMEOUT).isLessThan(OFFER_TIMEOUT.multipliedBy(3));
+        assertThat(meterRegistry.counter("library.audit.dropped").count()).isEqualTo(8);
+    }
+
+    private static List<AuditRecord> records(int count) {
+        List<AuditRecord> records = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            records.add(new AuditRecord("Book", id, ChangeType.UPDATE, "name", "old", "new",
+                    "test", LocalDateTime.now()));
+        }
+        return records;
+    }
+}
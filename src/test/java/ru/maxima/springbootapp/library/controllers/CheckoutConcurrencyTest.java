@@ -0,0 +1,91 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * Readers racing for the same copy: exactly one of them gets it, everyone
+ * else is sent back with "busy", and the loan records agree with the book.
+ */
+class CheckoutConcurrencyTest extends PostgresTest {
+
+    private static final int READERS = 8;
+    private static final int BOOKS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void eachBookGoesToExactlyOneReader() throws Exception {
+        List<Person> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            readers.add(savePerson("ROLE_USER"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            for (int i = 0; i < BOOKS; i++) {
+                Book book = saveBook(null);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> attempts = new ArrayList<>();
+                for (Person reader : readers) {
+                    attempts.add(executor.submit(() -> {
+                        start.await();
+                        return mockMvc.perform(post("/reader/assign/{id}", book.getId()).with(as(reader)))
+                                .andReturn().getResponse().getRedirectedUrl();
+                    }));
+                }
+                start.countDown();
+
+                List<Long> winners = new ArrayList<>();
+                for (int r = 0; r < READERS; r++) {
+                    String redirect = attempts.get(r).get();
+                    assertThat(redirect).isIn("/reader", "/reader?busy");
+                    if (redirect.equals("/reader")) {
+                        winners.add(readers.get(r).getId());
+                    }
+                }
+                assertThat(winners).hasSize(1);
+                assertThat(jdbcTemplate.queryForObject("select person_id from book where id = ?",
+                        Long.class, book.getId())).isEqualTo(winners.get(0));
+                assertThat(jdbcTemplate.queryForList("select person_id from active_loan where book_id = ?",
+                        Long.class, book.getId())).containsExactly(winners.get(0));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleEditFormIsTurnedAway() throws Exception {
+        Person admin = savePerson("ROLE_ADMIN");
+        Book book = saveBook(null);
+        Long renderedVersion = book.getVersion();
+        book.setAnnotation("changed in between");
+        save(book);
+
+        mockMvc.perform(put("/books/{id}", book.getId()).with(as(admin))
+                        .param("name", "stale title")
+                        .param("author", book.getAuthor())
+                        .param("version", String.valueOf(renderedVersion)))
+                .andExpect(redirectedUrl("/books/" + book.getId() + "?busy"));
+
+        assertThat(jdbcTemplate.queryForObject("select name from book where id = ?",
+                String.class, book.getId())).isEqualTo(book.getName());
+    }
+}
@@ -0,0 +1,95 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Soft-deleted books and people stay out of every list outside the admin
+ * views, whether the list is read inside a service transaction or straight
+ * from a repository.
+ */
+class LiveRowsTest extends PostgresTest {
+
+    private Person reader;
+    private Person removedPerson;
+    private Book liveBook;
+    private Book removedBook;
+
+    @BeforeEach
+    void seed() {
+        reader = savePerson("ROLE_USER");
+        removedPerson = savePerson("ROLE_USER");
+        removedPerson.setRemoved(true);
+        removedPerson.setRemovedAt(LocalDateTime.now());
+        removedPerson = save(removedPerson);
+        liveBook = saveBook(reader.getId());
+        removedBook = saveBook(reader.getId());
+        removedBook.setRemoved(true);
+        removedBook.setRemovedAt(LocalDateTime.now());
+        removedBook = save(removedBook);
+    }
+
+    @Test
+    void personBooksSkipRemoved() throws Exception {
+        mockMvc.perform(get("/api/people/{id}/books", reader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(liveBook.getId().intValue())))
+                .andExpect(jsonPath("$[*].id", not(hasItem(removedBook.getId().intValue()))));
+    }
+
+    @Test
+    void peopleSkipRemoved() throws Exception {
+        mockMvc.perform(get("/api/people/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(reader.getId().intValue())))
+                .andExpect(jsonPath("$[*].id", not(hasItem(removedPerson.getId().intValue()))));
+    }
+
+    @Test
+    void bookPagesSkipRemoved() throws Exception {
+        mockMvc.perform(get("/api/books/page")
+                        .param("after", String.valueOf(liveBook.getId() - 1)).param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[*].id", hasItem(liveBook.getId().intValue())))
+                .andExpect(jsonPath("$.books[*].id", not(hasItem(removedBook.getId().intValue()))));
+    }
+
+    @Test
+    void streamedBooksSkipRemoved() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/books/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(liveBook.getId().intValue())))
+                .andExpect(jsonPath("$[*].id", not(hasItem(removedBook.getId().intValue()))));
+    }
+
+    @Test
+    void readerLoansSkipRemoved() throws Exception {
+        MvcResult result = mockMvc.perform(get("/reader").with(as(reader)))
+                .andExpect(status().isOk())
+                .andReturn();
+        @SuppressWarnings("unchecked")
+        List<Book> booksInUse = (List<Book>) result.getModelAndView().getModel().get("booksInUse");
+        assertThat(booksInUse).extracting(Book::getId)
+                .contains(liveBook.getId())
+                .doesNotContain(removedBook.getId());
+    }
+}
@@ -0,0 +1,75 @@
+package ru.maxima.springbootapp.library.controllers;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each page runs a fixed number of SQL statements, however many books the
+ * person holds. Counted with Hibernate statistics on a cold second-level
+ * cache.
+ */
+class PageStatementsTest extends PostgresTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bookPageLoadsBookAndOwnerTogether() throws Exception {
+        Person admin = savePerson("ROLE_ADMIN");
+        Person owner = savePerson("ROLE_USER");
+        Book book = saveBook(owner.getId());
+
+        assertThat(statements(get("/books/{id}", book.getId()).with(as(admin)))).isEqualTo(2);
+        assertThat(statements(get("/api/books/{id}/owner", book.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void personPageLoadsPersonAndLoansTogether() throws Exception {
+        Person admin = savePerson("ROLE_ADMIN");
+        Person reader = savePerson("ROLE_USER");
+        saveBook(reader.getId());
+
+        long oneBook = statements(get("/people/{id}", reader.getId()).with(as(admin)));
+        for (int i = 0; i < 4; i++) {
+            saveBook(reader.getId());
+        }
+        long fiveBooks = statements(get("/people/{id}", reader.getId()).with(as(admin)));
+
+        assertThat(oneBook).isEqualTo(1);
+        assertThat(fiveBooks).isEqualTo(oneBook);
+    }
+
+    @Test
+    void readerPageLoadsLoansInOneQuery() throws Exception {
+        Person reader = savePerson("ROLE_USER");
+        saveBook(reader.getId());
+
+        long oneBook = statements(get("/reader").with(as(reader)));
+        for (int i = 0; i < 4; i++) {
+            saveBook(reader.getId());
+        }
+        long fiveBooks = statements(get("/reader").with(as(reader)));
+
+        assertThat(oneBook).isEqualTo(1);
+        assertThat(fiveBooks).isEqualTo(oneBook);
+    }
+
+    private long statements(MockHttpServletRequestBuilder request) throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
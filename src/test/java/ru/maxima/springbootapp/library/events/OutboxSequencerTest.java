@@ -0,0 +1,56 @@
+package ru.maxima.springbootapp.library.events;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.maxima.springbootapp.library.PostgresTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OutboxSequencerTest extends PostgresTest {
+
+    @Autowired
+    private OutboxSequencer outboxSequencer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void positionsKeepGrowingAfterCleanupAndPrunedOffsetsAreRejected() throws Exception {
+        List<Long> old = List.of(event(LocalDateTime.now().minusDays(60)), event(LocalDateTime.now().minusDays(60)));
+        outboxSequencer.publish();
+        long firstOld = position(old.get(0));
+        long lastOld = position(old.get(1));
+        long highest = jdbcTemplate.queryForObject("select max(position) from outbox_event", Long.class);
+
+        outboxSequencer.cleanup();
+        long fresh = event(LocalDateTime.now());
+        outboxSequencer.publish();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from outbox_event where id in (?, ?)",
+                Long.class, old.get(0), old.get(1))).isZero();
+        assertThat(position(fresh)).isGreaterThan(highest);
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(firstOld)))
+                .andExpect(status().isGone());
+        mockMvc.perform(get("/api/changes").param("since", String.valueOf(lastOld)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].position", hasItem((int) position(fresh))));
+    }
+
+    private long event(LocalDateTime occurredAt) {
+        return jdbcTemplate.queryForObject("insert into outbox_event (aggregate_type, aggregate_id, event_type, " +
+                "occurred_at) values ('book', 1, 'UPDATE', ?) returning id", Long.class, occurredAt);
+    }
+
+    private long position(long id) {
+
+        return jdbcTemplate.queryForObject("select position from outbox_event where id = ?", Long.class, id);
+    }
+}
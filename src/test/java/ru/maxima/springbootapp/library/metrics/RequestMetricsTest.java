@@ -0,0 +1,53 @@
+package ru.maxima.springbootapp.library.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.models.Person;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RequestMetricsTest extends PostgresTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void slowQueryThresholdReachesHibernate() {
+        long threshold = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getSqlStatementLogger().getLogSlowQuery();
+
+        assertThat(threshold).isEqualTo(200);
+    }
+
+    @Test
+    void entityLoadsAreRecordedPerRequest() throws Exception {
+        Person admin = savePerson("ROLE_ADMIN");
+        Person reader = savePerson("ROLE_USER");
+        for (int i = 0; i < 3; i++) {
+            saveBook(reader.getId());
+        }
+        entityManagerFactory.getCache().evictAll();
+        double before = loads().totalAmount();
+
+        mockMvc.perform(get("/people/{id}", reader.getId()).with(as(admin))).andExpect(status().isOk());
+
+        assertThat(loads().totalAmount() - before).isEqualTo(4);
+    }
+
+    private DistributionSummary loads() {
+        return DistributionSummary.builder("library.request.entity-loads")
+                .tag("method", "GET").tag("uri", "/people/{id}")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.maxima.springbootapp.library.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.models.Book;
+import ru.maxima.springbootapp.library.models.Person;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchivalServiceTest extends PostgresTest {
+
+    @Autowired
+    private ArchivalService archivalService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void removedBooksOnLoanStayUntilReturned() {
+        Person reader = savePerson("ROLE_USER");
+        Book free = removedLongAgo(saveBook(null));
+        Book onLoan = removedLongAgo(saveBook(reader.getId()));
+
+        archivalService.archiveRemoved();
+
+        assertThat(archived(free)).isTrue();
+        assertThat(archived(onLoan)).isFalse();
+        assertThat(booksRepository.findById(onLoan.getId())).isPresent();
+    }
+
+    private Book removedLongAgo(Book book) {
+        book.setRemoved(true);
+        book.setRemovedAt(LocalDateTime.now().minusYears(2));
+        return save(book);
+    }
+
+    private boolean archived(Book book) {
+        return jdbcTemplate.queryForObject("select exists (select 1 from book_archive where id = ?)",
+                Boolean.class, book.getId());
+    }
+}
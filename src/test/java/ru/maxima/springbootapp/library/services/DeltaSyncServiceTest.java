@@ -0,0 +1,50 @@
+package ru.maxima.springbootapp.library.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.maxima.springbootapp.library.PostgresTest;
+import ru.maxima.springbootapp.library.dto.BookDeltaDTO;
+import ru.maxima.springbootapp.library.dto.PersonDeltaDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rows inserted the way _BOOK.md and _PERSON.md do it, with every audit
+ * column null, still come out of a full sync.
+ */
+class DeltaSyncServiceTest extends PostgresTest {
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void fullSyncIncludesRowsWithoutAuditTimestamps() throws Exception {
+        long bookId = jdbcTemplate.queryForObject("insert into book (name, year_of_production, author, " +
+                "created_at, updated_at, removed_at, removed, person_id) " +
+                "values ('Seeded', 1957, 'Ian Fleming', null, null, null, false, null) returning id", Long.class);
+        long personId = jdbcTemplate.queryForObject("insert into person (name, age, role, " +
+                "created_at, updated_at, removed_at, removed) " +
+                "values ('seeded-' || gen_random_uuid(), 40, 'ROLE_USER', null, null, null, false) returning id",
+                Long.class);
+
+        assertThat(deltaSyncService.findBooksChangedSince(DeltaSyncService.FULL_SYNC, 0, 1000).getChanges())
+                .filteredOn(book -> book.getId() == bookId)
+                .extracting(BookDeltaDTO::getChangedAt)
+                .containsExactly(DeltaSyncService.FULL_SYNC);
+        assertThat(deltaSyncService.findPeopleChangedSince(DeltaSyncService.FULL_SYNC, 0, 1000).getChanges())
+                .filteredOn(person -> person.getId() == personId)
+                .extracting(PersonDeltaDTO::getChangedAt)
+                .containsExactly(DeltaSyncService.FULL_SYNC);
+        mockMvc.perform(get("/api/books/changed").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[*].id", hasItem((int) bookId)));
+    }
+}